@@ -0,0 +1,182 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pokegoapi.api.inventory;
+
+import POGOProtos.Data.PokedexEntryOuterClass.PokedexEntry;
+import POGOProtos.Data.PokemonDataOuterClass.PokemonData;
+import POGOProtos.Enums.PokemonFamilyIdOuterClass.PokemonFamilyId;
+import POGOProtos.Enums.PokemonIdOuterClass.PokemonId;
+import POGOProtos.Inventory.CandyOuterClass.Candy;
+import POGOProtos.Inventory.InventoryDeltaOuterClass.InventoryDelta;
+import POGOProtos.Inventory.InventoryItemDataOuterClass.InventoryItemData;
+import POGOProtos.Inventory.InventoryItemOuterClass.InventoryItem;
+import POGOProtos.Inventory.Item.ItemDataOuterClass.ItemData;
+import POGOProtos.Inventory.Item.ItemIdOuterClass.ItemId;
+import POGOProtos.Networking.Responses.GetHoloInventoryResponseOuterClass.GetHoloInventoryResponse;
+import com.pokegoapi.api.PokemonGo;
+import com.pokegoapi.api.pokemon.EggPokemon;
+import com.pokegoapi.api.pokemon.Pokemon;
+import com.pokegoapi.api.settings.templates.DirectTemplateProvider;
+import com.pokegoapi.exceptions.request.RequestFailedException;
+import okhttp3.OkHttpClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Applying a complete inventory response to empty stores. The per item benchmark is the loop inventories used
+ * before the delta was classified in one pass, updating a store for each item, as a baseline. Both run against the
+ * current stores, so the difference is the cost of the per item updates. The api is not logged in, so the response
+ * holds no player stats or incubators.
+ * Run with <code>gradlew :library:jmh -PjmhArgs="InventoriesBenchmark -prof gc"</code> to include allocation rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class InventoriesBenchmark {
+	@Param({"5000"})
+	public int size;
+
+	private PokemonGo api;
+	private GetHoloInventoryResponse response;
+	private Inventories inventories;
+
+	/**
+	 * Builds a response of mostly pokemon, with eggs, items, candies and pokedex entries
+	 */
+	@Setup
+	public void setup() {
+		api = new PokemonGo(new OkHttpClient());
+		api.setItemTemplateProvider(new DirectTemplateProvider());
+		Random random = new Random(size);
+		PokemonId[] species = PokemonId.values();
+		PokemonFamilyId[] families = PokemonFamilyId.values();
+		ItemId[] itemIds = ItemId.values();
+		InventoryDelta.Builder delta = InventoryDelta.newBuilder().setNewTimestampMs(1);
+		for (int i = 0; i < size; i++) {
+			InventoryItemData.Builder data = InventoryItemData.newBuilder();
+			int kind = random.nextInt(100);
+			if (kind < 70) {
+				data.setPokemonData(PokemonData.newBuilder()
+						.setId(random.nextLong())
+						.setPokemonId(species[1 + random.nextInt(species.length - 2)])
+						.setCp(10 + random.nextInt(3000))
+						.setIndividualAttack(random.nextInt(16))
+						.setIndividualDefense(random.nextInt(16))
+						.setIndividualStamina(random.nextInt(16)));
+			} else if (kind < 74) {
+				data.setPokemonData(PokemonData.newBuilder()
+						.setId(random.nextLong())
+						.setPokemonId(PokemonId.MISSINGNO)
+						.setIsEgg(true)
+						.setEggKmWalkedTarget(5));
+			} else if (kind < 78) {
+				data.setItem(ItemData.newBuilder()
+						.setItemId(itemIds[1 + random.nextInt(itemIds.length - 2)])
+						.setCount(1 + random.nextInt(100)));
+			} else if (kind < 85) {
+				data.setCandy(Candy.newBuilder()
+						.setFamilyId(families[1 + random.nextInt(families.length - 2)])
+						.setCandy(random.nextInt(500)));
+			} else {
+				data.setPokedexEntry(PokedexEntry.newBuilder()
+						.setPokemonId(species[1 + random.nextInt(species.length - 2)])
+						.setTimesEncountered(1 + random.nextInt(50))
+						.setTimesCaptured(random.nextInt(50)));
+			}
+			delta.addInventoryItems(InventoryItem.newBuilder().setInventoryItemData(data));
+		}
+		response = GetHoloInventoryResponse.newBuilder().setSuccess(true).setInventoryDelta(delta).build();
+	}
+
+	/**
+	 * Creates empty stores for each invocation
+	 */
+	@Setup(Level.Invocation)
+	public void reset() {
+		inventories = new Inventories(api);
+	}
+
+	/**
+	 * Applies the response in one classification pass with bulk store updates
+	 *
+	 * @return the inventories
+	 * @throws RequestFailedException never, the response has no player stats
+	 */
+	@Benchmark
+	public Inventories updateInventories() throws RequestFailedException {
+		inventories.updateInventories(response);
+		return inventories;
+	}
+
+	/**
+	 * Applies the response by updating a store for each item, as inventories did before
+	 *
+	 * @return the inventories
+	 */
+	@Benchmark
+	public Inventories perItem() {
+		PokeBank pokebank = inventories.getPokebank();
+		Hatchery hatchery = inventories.getHatchery();
+		ItemBag itemBag = inventories.getItemBag();
+		CandyJar candyjar = inventories.getCandyjar();
+		Pokedex pokedex = inventories.getPokedex();
+		for (InventoryItem inventoryItem : response.getInventoryDelta().getInventoryItemsList()) {
+			if (inventoryItem.getDeletedItem().getPokemonId() != 0) {
+				pokebank.removePokemon(inventoryItem.getDeletedItem().getPokemonId());
+			}
+			InventoryItemData itemData = inventoryItem.getInventoryItemData();
+			if (itemData.hasPokemonData()) {
+				PokemonData pokemonData = itemData.getPokemonData();
+				if (pokemonData.getPokemonId() == PokemonId.MISSINGNO && pokemonData.getIsEgg()) {
+					hatchery.addEgg(new EggPokemon(pokemonData));
+				}
+				if (pokemonData.getPokemonId() != PokemonId.MISSINGNO) {
+					pokebank.addPokemon(new Pokemon(api, pokemonData));
+				}
+			}
+			if (itemData.hasItem()) {
+				ItemData item = itemData.getItem();
+				if (item.getCount() > 0) {
+					itemBag.addItem(new Item(api, item, itemBag));
+				}
+			}
+			if (itemData.hasCandy()) {
+				Candy candy = itemData.getCandy();
+				candyjar.setCandy(candy.getFamilyId(), candy.getCandy());
+			}
+			if (itemData.hasPokedexEntry()) {
+				pokedex.add(itemData.getPokedexEntry());
+			}
+		}
+		return inventories;
+	}
+}
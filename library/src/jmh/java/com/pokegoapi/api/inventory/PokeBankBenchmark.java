@@ -0,0 +1,148 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.pokegoapi.api.inventory;
+
+import POGOProtos.Data.PokemonDataOuterClass.PokemonData;
+import POGOProtos.Enums.PokemonIdOuterClass.PokemonId;
+import com.pokegoapi.api.PokemonGo;
+import com.pokegoapi.api.pokemon.Pokemon;
+import com.pokegoapi.api.settings.templates.DirectTemplateProvider;
+import okhttp3.OkHttpClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Pokebank operations on a full storage of pokemon. The list scan is the lookup the pokebank did before it was
+ * indexed by id, as a baseline. The api is not logged in and has no item templates, so all pokemon are in the
+ * unset family.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class PokeBankBenchmark {
+	@Param({"2500"})
+	public int size;
+
+	private PokeBank pokebank;
+	private Pokemon[] pokemon;
+	private List<Pokemon> list;
+	private int cursor;
+
+	/**
+	 * Fills the pokebank with random pokemon
+	 */
+	@Setup
+	public void setup() {
+		PokemonGo api = new PokemonGo(new OkHttpClient());
+		api.setItemTemplateProvider(new DirectTemplateProvider());
+		Random random = new Random(size);
+		PokemonId[] species = PokemonId.values();
+		pokebank = new PokeBank(api);
+		pokemon = new Pokemon[size];
+		list = new ArrayList<>(size);
+		for (int i = 0; i < size; i++) {
+			PokemonData data = PokemonData.newBuilder()
+					.setId(random.nextLong())
+					.setPokemonId(species[1 + random.nextInt(species.length - 2)])
+					.setCp(10 + random.nextInt(3000))
+					.setIndividualAttack(random.nextInt(16))
+					.setIndividualDefense(random.nextInt(16))
+					.setIndividualStamina(random.nextInt(16))
+					.build();
+			pokemon[i] = new Pokemon(api, data);
+			pokebank.addPokemon(pokemon[i]);
+			list.add(pokemon[i]);
+		}
+		Collections.shuffle(list, random);
+	}
+
+	private Pokemon next() {
+		int index = cursor;
+		cursor = index + 1 == size ? 0 : index + 1;
+		return pokemon[index];
+	}
+
+	@Benchmark
+	public Pokemon getPokemonById() {
+		return pokebank.getPokemonById(next().getId());
+	}
+
+	/**
+	 * Finds a pokemon by scanning a list, as the pokebank did before it was indexed
+	 *
+	 * @return the pokemon
+	 */
+	@Benchmark
+	public Pokemon listScan() {
+		long id = next().getId();
+		for (Pokemon candidate : list) {
+			if (candidate.getId() == id) {
+				return candidate;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Removes and re-adds a pokemon, which updates the id map, the insertion order and all indexes
+	 *
+	 * @return the number of pokemon
+	 */
+	@Benchmark
+	public int removeAdd() {
+		Pokemon removed = next();
+		pokebank.removePokemon(removed);
+		pokebank.addPokemon(removed);
+		return pokebank.size();
+	}
+
+	/**
+	 * Changes the pokebank and rebuilds the shared snapshot of all pokemon
+	 *
+	 * @return all pokemon
+	 */
+	@Benchmark
+	public List<Pokemon> getPokemonsAfterChange() {
+		Pokemon removed = next();
+		pokebank.removePokemon(removed);
+		pokebank.addPokemon(removed);
+		return pokebank.getPokemons();
+	}
+
+	@Benchmark
+	public List<Pokemon> getTopByCp() {
+		return pokebank.getTopByCp(10);
+	}
+}
@@ -0,0 +1,127 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.pokegoapi.api.inventory.analytics;
+
+import POGOProtos.Enums.PokemonFamilyIdOuterClass.PokemonFamilyId;
+import POGOProtos.Enums.PokemonIdOuterClass.PokemonId;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Evaluates keep, evolve and transfer policies over a synthetic fleet, by default 1,000 accounts of 1,000 pokemon
+ * each. A parallelism of 0 uses all available processors.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 2)
+@Measurement(iterations = 5, time = 2)
+@Fork(1)
+public class FleetAnalyzerBenchmark {
+	private static final List<InventoryPolicy> POLICIES = Arrays.asList(
+			new InventoryPolicy() {
+				@Override
+				public Decision evaluate(InventoryColumns inventory, int row) {
+					return inventory.getIvSum(row) >= 40 ? Decision.KEEP : Decision.NONE;
+				}
+			},
+			new InventoryPolicy() {
+				@Override
+				public Decision evaluate(InventoryColumns inventory, int row) {
+					int candies = inventory.getCandiesToEvolve(row);
+					return candies > 0 && inventory.getCandies(inventory.getFamilyOrdinal(row)) >= candies
+							? Decision.EVOLVE : Decision.NONE;
+				}
+			},
+			new InventoryPolicy() {
+				@Override
+				public Decision evaluate(InventoryColumns inventory, int row) {
+					return inventory.getCp(row) < 1000 && inventory.getLevel(row) < 20
+							? Decision.TRANSFER : Decision.NONE;
+				}
+			});
+
+	@Param({"1000"})
+	public int accounts;
+
+	@Param({"1000"})
+	public int pokemonPerAccount;
+
+	@Param({"1", "0"})
+	public int parallelism;
+
+	private List<InventoryColumns> fleet;
+	private ForkJoinPool pool;
+	private FleetAnalyzer analyzer;
+
+	/**
+	 * Builds the synthetic fleet and the pool to evaluate it in
+	 */
+	@Setup
+	public void setup() {
+		Random random = new Random(1);
+		PokemonId[] species = PokemonId.values();
+		PokemonFamilyId[] families = PokemonFamilyId.values();
+		fleet = new ArrayList<>(accounts);
+		for (int account = 0; account < accounts; account++) {
+			InventoryColumns.Builder builder = new InventoryColumns.Builder("account" + account, pokemonPerAccount);
+			for (int i = 0; i < pokemonPerAccount; i++) {
+				int id = 1 + random.nextInt(species.length - 2);
+				int flags = random.nextInt(50) == 0 ? InventoryColumns.FLAG_FAVORITE : 0;
+				builder.add((long) account << 32 | i, species[id], families[1 + id % (families.length - 2)],
+						10 + random.nextInt(3000), random.nextInt(16), random.nextInt(16), random.nextInt(16),
+						1 + random.nextInt(40), id % 3 == 0 ? 0 : 25, flags);
+			}
+			for (int family = 1; family < families.length - 1; family++) {
+				builder.setCandies(families[family], random.nextInt(400));
+			}
+			fleet.add(builder.build());
+		}
+		pool = new ForkJoinPool(parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors());
+		analyzer = new FleetAnalyzer(pool);
+	}
+
+	/**
+	 * Shuts down the pool of this trial
+	 */
+	@TearDown
+	public void tearDown() {
+		pool.shutdown();
+	}
+
+	@Benchmark
+	public List<AccountPlan> evaluate() {
+		return analyzer.evaluate(fleet, POLICIES);
+	}
+}
@@ -0,0 +1,145 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pokegoapi.api.map;
+
+import POGOProtos.Data.PokemonDataOuterClass.PokemonData;
+import POGOProtos.Enums.PokemonIdOuterClass.PokemonId;
+import POGOProtos.Map.Fort.FortDataOuterClass.FortData;
+import POGOProtos.Map.Fort.FortTypeOuterClass.FortType;
+import POGOProtos.Map.MapCellOuterClass.MapCell;
+import POGOProtos.Map.Pokemon.MapPokemonOuterClass.MapPokemon;
+import POGOProtos.Map.Pokemon.NearbyPokemonOuterClass.NearbyPokemon;
+import POGOProtos.Map.Pokemon.WildPokemonOuterClass.WildPokemon;
+import POGOProtos.Map.SpawnPointOuterClass.SpawnPoint;
+import com.pokegoapi.api.PokemonGo;
+import okhttp3.OkHttpClient;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Adding a dense map cell to a snapshot. The eager benchmark reads every category after adding the cell, which
+ * creates the same wrappers the snapshot created in addCell before they were made lazy, as a baseline.
+ * Run with <code>gradlew :library:jmh -PjmhArgs="MapObjectsBenchmark -prof gc"</code> to compare the allocation per
+ * cell.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class MapObjectsBenchmark {
+	@Param({"10"})
+	public int scale;
+
+	private PokemonGo api;
+	private MapCell cell;
+
+	/**
+	 * Builds a cell with scale forts, scale catchable and wild pokemon, scale nearby pokemon and 10 * scale
+	 * spawnpoints and decimated spawnpoints
+	 */
+	@Setup
+	public void setup() {
+		api = new PokemonGo(new OkHttpClient());
+		Random random = new Random(scale);
+		PokemonId[] species = PokemonId.values();
+		MapCell.Builder builder = MapCell.newBuilder().setS2CellId(random.nextLong());
+		for (int i = 0; i < scale; i++) {
+			PokemonId pokemonId = species[1 + random.nextInt(species.length - 2)];
+			builder.addForts(FortData.newBuilder()
+					.setId("fort" + i)
+					.setType(i % 3 == 0 ? FortType.GYM : FortType.CHECKPOINT)
+					.setLatitude(random.nextDouble())
+					.setLongitude(random.nextDouble()));
+			builder.addCatchablePokemons(MapPokemon.newBuilder()
+					.setEncounterId(random.nextLong())
+					.setSpawnPointId("spawn" + i)
+					.setPokemonId(pokemonId)
+					.setLatitude(random.nextDouble())
+					.setLongitude(random.nextDouble()));
+			builder.addWildPokemons(WildPokemon.newBuilder()
+					.setEncounterId(random.nextLong())
+					.setSpawnPointId("spawn" + i)
+					.setPokemonData(PokemonData.newBuilder().setPokemonId(pokemonId))
+					.setLatitude(random.nextDouble())
+					.setLongitude(random.nextDouble()));
+			builder.addNearbyPokemons(NearbyPokemon.newBuilder()
+					.setEncounterId(random.nextLong())
+					.setPokemonId(pokemonId)
+					.setDistanceInMeters(random.nextFloat() * 200));
+		}
+		for (int i = 0; i < scale * 10; i++) {
+			builder.addSpawnPoints(SpawnPoint.newBuilder()
+					.setLatitude(random.nextDouble())
+					.setLongitude(random.nextDouble()));
+			builder.addDecimatedSpawnPoints(SpawnPoint.newBuilder()
+					.setLatitude(random.nextDouble())
+					.setLongitude(random.nextDouble()));
+		}
+		cell = builder.build();
+	}
+
+	/**
+	 * Adds the cell without reading it, which only keeps the raw protos
+	 *
+	 * @return the snapshot
+	 */
+	@Benchmark
+	public MapObjects lazy() {
+		MapObjects mapObjects = new MapObjects(api);
+		mapObjects.addCell(cell);
+		return mapObjects;
+	}
+
+	/**
+	 * Adds the cell and reads the catchable pokemon, as a bot that only catches does
+	 *
+	 * @return the number of catchable pokemon
+	 */
+	@Benchmark
+	public int lazyCatchable() {
+		MapObjects mapObjects = new MapObjects(api);
+		mapObjects.addCell(cell);
+		return mapObjects.getPokemon().size();
+	}
+
+	/**
+	 * Adds the cell and creates the wrappers of every category, as addCell did before wrappers were lazy
+	 *
+	 * @return the number of objects
+	 */
+	@Benchmark
+	public int eager() {
+		MapObjects mapObjects = new MapObjects(api);
+		mapObjects.addCell(cell);
+		return mapObjects.getNearby().size() + mapObjects.getPokemon().size()
+				+ mapObjects.getSpawnpoints().size() + mapObjects.getDecimatedSpawnPoints().size()
+				+ mapObjects.getPokestops().size() + mapObjects.getGyms().size();
+	}
+}
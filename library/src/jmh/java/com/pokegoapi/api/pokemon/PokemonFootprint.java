@@ -0,0 +1,118 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pokegoapi.api.pokemon;
+
+import POGOProtos.Data.PokemonDataOuterClass.PokemonData;
+import POGOProtos.Enums.PokemonIdOuterClass.PokemonId;
+import POGOProtos.Inventory.Item.ItemIdOuterClass.ItemId;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.pokegoapi.api.PokemonGo;
+import com.pokegoapi.api.settings.templates.DirectTemplateProvider;
+import okhttp3.OkHttpClient;
+
+import java.util.Random;
+
+/**
+ * Measures the heap retained by inventory pokemon in the default and in the compact mode, as the difference in
+ * used heap after a full collection before and after building them. Each pokemon is parsed from its own serialized
+ * proto, as it is when received from the server.
+ * Run with <code>gradlew :library:pokemonFootprint</code>, optionally with -PfootprintSize=&lt;count&gt;.
+ */
+public final class PokemonFootprint {
+	private static final int ROUNDS = 5;
+
+	private PokemonFootprint() {
+	}
+
+	/**
+	 * Prints the retained heap per pokemon for both modes
+	 *
+	 * @param args the amount of pokemon to build, 2500 by default
+	 * @throws InvalidProtocolBufferException if a generated proto could not be parsed
+	 */
+	public static void main(String[] args) throws InvalidProtocolBufferException {
+		int size = args.length > 0 ? Integer.parseInt(args[0]) : 2500;
+		byte[][] protos = createProtos(size);
+		PokemonGo api = new PokemonGo(new OkHttpClient());
+		api.setItemTemplateProvider(new DirectTemplateProvider());
+		for (boolean compact : new boolean[]{false, true}) {
+			api.setCompactPokemon(compact);
+			long best = Long.MAX_VALUE;
+			for (int round = 0; round < ROUNDS; round++) {
+				best = Math.min(best, measure(api, protos));
+			}
+			System.out.println((compact ? "compact" : "default") + ": " + best + " bytes for " + size
+					+ " pokemon, " + best / size + " bytes per pokemon");
+		}
+	}
+
+	private static long measure(PokemonGo api, byte[][] protos) throws InvalidProtocolBufferException {
+		long before = getUsedHeap();
+		Pokemon[] pokemon = new Pokemon[protos.length];
+		for (int i = 0; i < protos.length; i++) {
+			pokemon[i] = new Pokemon(api, PokemonData.parseFrom(protos[i]));
+		}
+		long after = getUsedHeap();
+		if (pokemon[pokemon.length - 1] == null) {
+			throw new IllegalStateException();
+		}
+		return after - before;
+	}
+
+	private static long getUsedHeap() {
+		Runtime runtime = Runtime.getRuntime();
+		long used = Long.MAX_VALUE;
+		for (int i = 0; i < 4; i++) {
+			System.gc();
+			used = Math.min(used, runtime.totalMemory() - runtime.freeMemory());
+		}
+		return used;
+	}
+
+	/**
+	 * Creates serialized inventory pokemon with all fields an account typically has set
+	 *
+	 * @param size the amount of pokemon
+	 * @return the serialized protos
+	 */
+	private static byte[][] createProtos(int size) {
+		Random random = new Random(size);
+		PokemonId[] species = PokemonId.values();
+		byte[][] protos = new byte[size][];
+		for (int i = 0; i < size; i++) {
+			protos[i] = PokemonData.newBuilder()
+					.setId(random.nextLong())
+					.setPokemonId(species[1 + random.nextInt(species.length - 2)])
+					.setCp(10 + random.nextInt(3000))
+					.setStamina(10 + random.nextInt(150))
+					.setStaminaMax(10 + random.nextInt(150))
+					.setIndividualAttack(random.nextInt(16))
+					.setIndividualDefense(random.nextInt(16))
+					.setIndividualStamina(random.nextInt(16))
+					.setCpMultiplier(random.nextFloat())
+					.setHeightM(random.nextFloat() * 2)
+					.setWeightKg(random.nextFloat() * 100)
+					.setPokeball(ItemId.ITEM_POKE_BALL)
+					.setOwnerName("Trainer")
+					.setCapturedCellId(random.nextLong())
+					.setCreationTimeMs(1500000000000L + random.nextInt(Integer.MAX_VALUE))
+					.setOrigin(random.nextInt(30))
+					.build()
+					.toByteArray();
+		}
+		return protos;
+	}
+}
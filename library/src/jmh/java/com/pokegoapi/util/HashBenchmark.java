@@ -0,0 +1,125 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.pokegoapi.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.nio.ByteBuffer;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the {@link NiaHash} functions from 32 B to 64 KB of input, each next to the same function of
+ * {@link BaselineNiaHash}, the implementation built on {@link UInt128} instances that it replaced.
+ * Run with <code>gradlew :library:jmh -PjmhArgs="HashBenchmark -prof gc"</code> to include allocation rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class HashBenchmark {
+	private static final byte[] SALT = {(byte) 0x46, (byte) 0xE9, (byte) 0x45, (byte) 0xF8};
+
+	@Param({"32", "128", "256", "1024", "4096", "16384", "65536"})
+	public int size;
+
+	private byte[] input;
+	private ByteBuffer buffer;
+	private long first;
+	private long second;
+
+	/**
+	 * Creates the input of the configured size
+	 */
+	@Setup
+	public void setup() {
+		Random random = new Random(size);
+		input = new byte[size];
+		random.nextBytes(input);
+		buffer = ByteBuffer.wrap(input);
+		first = random.nextLong();
+		second = random.nextLong();
+	}
+
+	@Benchmark
+	public int hash32() {
+		return NiaHash.hash32(input);
+	}
+
+	@Benchmark
+	public int baselineHash32() {
+		return BaselineNiaHash.hash32(input);
+	}
+
+	@Benchmark
+	public int hash32Salt() {
+		return NiaHash.hash32Salt(input, SALT);
+	}
+
+	@Benchmark
+	public int baselineHash32Salt() {
+		return BaselineNiaHash.hash32Salt(input, SALT);
+	}
+
+	@Benchmark
+	public long hash64Salt() {
+		return NiaHash.hash64Salt(input, SALT);
+	}
+
+	@Benchmark
+	public long baselineHash64Salt() {
+		return BaselineNiaHash.hash64Salt(input, SALT);
+	}
+
+	/**
+	 * Hashes the input through the {@link ByteBuffer} overload
+	 *
+	 * @return the hash
+	 */
+	@Benchmark
+	public long hash64SaltBuffer() {
+		buffer.rewind();
+		return NiaHash.hash64Salt(buffer, SALT);
+	}
+
+	@Benchmark
+	public long computeHash() {
+		return NiaHash.computeHash(input, size);
+	}
+
+	@Benchmark
+	public long baselineComputeHash() {
+		return BaselineNiaHash.computeHash(input, size);
+	}
+
+	@Benchmark
+	public long multiply() {
+		return UInt128.multiply(first, second).high;
+	}
+}
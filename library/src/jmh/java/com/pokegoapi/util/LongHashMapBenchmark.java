@@ -0,0 +1,120 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.pokegoapi.util;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.HashMap;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Lookups and updates of {@link LongHashMap} at pokebank size, with a boxed {@link HashMap} as baseline.
+ * Keys are random like pokemon ids.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class LongHashMapBenchmark {
+	@Param({"2500"})
+	public int size;
+
+	private long[] keys;
+	private long[] missing;
+	private LongHashMap<Object> map;
+	private HashMap<Long, Object> boxed;
+	private int cursor;
+
+	/**
+	 * Fills both maps with the same random keys
+	 */
+	@Setup
+	public void setup() {
+		Random random = new Random(size);
+		keys = new long[size];
+		missing = new long[size];
+		map = new LongHashMap<>();
+		boxed = new HashMap<>();
+		for (int i = 0; i < size; i++) {
+			keys[i] = random.nextLong();
+			missing[i] = random.nextLong();
+			map.put(keys[i], keys);
+			boxed.put(keys[i], keys);
+		}
+	}
+
+	private int next() {
+		int index = cursor;
+		cursor = index + 1 == size ? 0 : index + 1;
+		return index;
+	}
+
+	@Benchmark
+	public Object getHit() {
+		return map.get(keys[next()]);
+	}
+
+	@Benchmark
+	public Object getMiss() {
+		return map.get(missing[next()]);
+	}
+
+	/**
+	 * Removes and re-adds a key, the work of moving a pokemon
+	 *
+	 * @return the re-added value
+	 */
+	@Benchmark
+	public Object removePut() {
+		long key = keys[next()];
+		return map.put(key, map.remove(key));
+	}
+
+	@Benchmark
+	public Object boxedGetHit() {
+		return boxed.get(keys[next()]);
+	}
+
+	@Benchmark
+	public Object boxedGetMiss() {
+		return boxed.get(missing[next()]);
+	}
+
+	/**
+	 * Removes and re-adds a key in the boxed map
+	 *
+	 * @return the re-added value
+	 */
+	@Benchmark
+	public Object boxedRemovePut() {
+		long key = keys[next()];
+		return boxed.put(key, boxed.remove(key));
+	}
+}
@@ -0,0 +1,100 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.pokegoapi.util.hash.crypto;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.security.InvalidKeyException;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Throughput of the signature encryption and the primitives it uses. The sizes cover a typical signature and the
+ * block boundaries around it. Run with <code>gradlew :library:jmh -PjmhArgs="CryptoBenchmark -prof gc"</code> to
+ * include allocation rates.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CryptoBenchmark {
+	@Param({"16", "255", "256", "600"})
+	public int size;
+
+	private Crypto crypto;
+	private byte[] input;
+	private byte[] key;
+	private Object sessionKey;
+	private byte[] block;
+	private int[] vector;
+	private long msSinceStart;
+
+	/**
+	 * Creates the input of the configured size
+	 *
+	 * @throws InvalidKeyException if the TwoFish key could not be created
+	 */
+	@Setup
+	public void setup() throws InvalidKeyException {
+		Random random = new Random(size);
+		crypto = new Crypto();
+		input = new byte[size];
+		random.nextBytes(input);
+		key = new byte[32];
+		random.nextBytes(key);
+		sessionKey = TwoFish.makeKey(key);
+		block = new byte[TwoFish.BLOCK_SIZE];
+		random.nextBytes(block);
+		vector = new int[64];
+		for (int i = 0; i < vector.length; i++) {
+			vector[i] = random.nextInt();
+		}
+		msSinceStart = random.nextInt(1 << 30);
+	}
+
+	@Benchmark
+	public byte[] encrypt() {
+		return crypto.encrypt(input, msSinceStart);
+	}
+
+	@Benchmark
+	public Object makeKey() throws InvalidKeyException {
+		return TwoFish.makeKey(key);
+	}
+
+	@Benchmark
+	public byte[] blockEncrypt() {
+		return TwoFish.blockEncrypt(block, 0, sessionKey);
+	}
+
+	@Benchmark
+	public byte[] shuffle2() {
+		return Shuffle.shuffle2(vector);
+	}
+}
@@ -0,0 +1,96 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.pokegoapi.util.hash.crypto;
+
+import com.pokegoapi.util.NiaHash;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures how signing scales with concurrent requests from several accounts. Every operation hashes a request
+ * and encrypts a signature sized payload, as each request of {@link com.pokegoapi.util.Signature} does, with one
+ * {@link Crypto} per thread. Compare the per thread results to find shared state that serializes the threads.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 5, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class CryptoScalingBenchmark {
+	private static final byte[] SALT = {(byte) 0x46, (byte) 0xE9, (byte) 0x45, (byte) 0xF8};
+
+	private Crypto crypto;
+	private byte[] request;
+	private byte[] signature;
+	private long msSinceStart;
+
+	/**
+	 * Creates the inputs of this thread
+	 */
+	@Setup
+	public void setup() {
+		Random random = new Random(Thread.currentThread().getId());
+		crypto = new Crypto();
+		request = new byte[512];
+		random.nextBytes(request);
+		signature = new byte[300];
+		random.nextBytes(signature);
+		msSinceStart = random.nextInt(1 << 30);
+	}
+
+	private byte[] sign() {
+		signature[0] = (byte) NiaHash.hash64Salt(request, SALT);
+		return crypto.encrypt(signature, msSinceStart++);
+	}
+
+	@Benchmark
+	@Threads(1)
+	public byte[] sign1() {
+		return sign();
+	}
+
+	@Benchmark
+	@Threads(2)
+	public byte[] sign2() {
+		return sign();
+	}
+
+	@Benchmark
+	@Threads(4)
+	public byte[] sign4() {
+		return sign();
+	}
+
+	@Benchmark
+	@Threads(Threads.MAX)
+	public byte[] signMax() {
+		return sign();
+	}
+}
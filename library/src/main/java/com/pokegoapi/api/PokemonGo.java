@@ -39,6 +39,7 @@ import com.pokegoapi.api.device.DeviceInfo;
 import com.pokegoapi.api.device.LocationFixes;
 import com.pokegoapi.api.device.SensorInfo;
 import com.pokegoapi.api.inventory.Inventories;
+import com.pokegoapi.api.inventory.InventorySnapshotStore;
 import com.pokegoapi.api.listener.Listener;
 import com.pokegoapi.api.listener.LocationListener;
 import com.pokegoapi.api.listener.LoginListener;
@@ -60,6 +61,8 @@ import com.pokegoapi.main.ServerRequest;
 import com.pokegoapi.main.ServerRequestEnvelope;
 import com.pokegoapi.util.ClientInterceptor;
 import com.pokegoapi.util.Log;
+import com.pokegoapi.util.SignatureContext;
+import com.pokegoapi.util.SignatureProbe;
 import com.pokegoapi.util.SystemTimeImpl;
 import com.pokegoapi.util.Time;
 import com.pokegoapi.util.hash.HashProvider;
@@ -91,6 +94,15 @@ public class PokemonGo {
 	@Getter
 	private Inventories inventories;
 	@Getter
+	@Setter
+	private InventorySnapshotStore inventorySnapshotStore;
+	/**
+	 * If enabled, inventory pokemon only keep their frequently used fields decoded and store the rest serialized
+	 */
+	@Getter
+	@Setter
+	private boolean compactPokemon;
+	@Getter
     private News news;
     @Getter
     private double latitude;
@@ -106,9 +118,10 @@ public class PokemonGo {
 	@Getter
 	private Settings settings;
 	private Map map;
-	@Setter
 	private DeviceInfo deviceInfo;
 	@Getter
+	private SignatureContext signatureContext;
+	@Getter
 	@Setter
 	public SensorInfo sensorInfo;
 	@Getter
@@ -143,6 +156,13 @@ public class PokemonGo {
 	@Getter
 	private HashProvider hashProvider;
 
+	/**
+	 * Probe to receive timings of signature generation, null (disabled) by default.
+	 */
+	@Getter
+	@Setter
+	private SignatureProbe signatureProbe;
+
 	private OkHttpClient client;
 
 	/**
@@ -247,6 +267,7 @@ public class PokemonGo {
 		firstGP = true;
 		active = false;
 		new Random().nextBytes(sessionHash);
+		signatureContext = new SignatureContext(this);
 		inventories = new Inventories(this);
         news = new News(this);
         settings = new Settings(this);
@@ -267,6 +288,12 @@ public class PokemonGo {
 
 		playerProfile.updateProfile();
 
+		// Restore before the first request with commons, so the first inventory request only asks for the delta.
+		// Items need the item templates, so without cached templates the full inventory is downloaded instead.
+		if (hasTemplates()) {
+			restoreInventory();
+		}
+
 		ServerRequest downloadConfigRequest = new ServerRequest(RequestType.DOWNLOAD_REMOTE_CONFIG_VERSION,
 				CommonRequests.getDownloadRemoteConfigVersionMessageRequest(this));
 		getRequestHandler().sendServerRequests(downloadConfigRequest, true);
@@ -359,6 +386,17 @@ public class PokemonGo {
 		}
 	}
 
+	/**
+	 * Restores the inventories from the inventory snapshot store, if one is set
+	 *
+	 * @throws RequestFailedException if an exception occurred while sending requests
+	 */
+	private void restoreInventory() throws RequestFailedException {
+		if (inventorySnapshotStore != null && inventories.restore(inventorySnapshotStore)) {
+			Log.i(TAG, "Restored inventory snapshot from " + inventories.getLastInventoryUpdate());
+		}
+	}
+
 	/**
 	 * Second requests block. Public since it could be re-fired at any time
 	 *
@@ -443,11 +481,7 @@ public class PokemonGo {
 		latitude = value;
 
 		if (active && !Double.isNaN(latitude) && !Double.isNaN(longitude)) {
-			if (!heartbeat.active()) {
-				heartbeat.start();
-			} else {
-				heartbeat.beat();
-			}
+			heartbeat.locationChanged();
 		}
 
 		for (LocationListener listener : this.getListeners(LocationListener.class)) {
@@ -468,11 +502,7 @@ public class PokemonGo {
 		longitude = value;
 
 		if (active && !Double.isNaN(latitude) && !Double.isNaN(longitude)) {
-			if (!heartbeat.active()) {
-				heartbeat.start();
-			} else {
-				heartbeat.beat();
-			}
+			heartbeat.locationChanged();
 		}
 
 		for (LocationListener listener : this.getListeners(LocationListener.class)) {
@@ -505,6 +535,15 @@ public class PokemonGo {
 		return deviceInfo.getDeviceInfo();
 	}
 
+	/**
+	 * Sets the device info. Later changes made through its setters are sent with the next request.
+	 *
+	 * @param deviceInfo the device info
+	 */
+	public void setDeviceInfo(DeviceInfo deviceInfo) {
+		this.deviceInfo = deviceInfo;
+	}
+
 	/**
 	 * Gets the sensor info
 	 *
@@ -722,6 +761,13 @@ public class PokemonGo {
 		if (active) {
 			heartbeat.exit();
 			requestHandler.exit();
+			if (inventorySnapshotStore != null) {
+				try {
+					inventorySnapshotStore.save();
+				} catch (IOException e) {
+					Log.e(TAG, "Failed to save inventory snapshot", e);
+				}
+			}
 			active = false;
 			reset();
 		}
@@ -44,6 +44,8 @@ public class DeviceInfo {
 	};
 
 	private SignatureOuterClass.Signature.DeviceInfo.Builder deviceInfoBuilder;
+	private SignatureOuterClass.Signature.DeviceInfo deviceInfo;
+	private boolean builderShared;
 
 	public DeviceInfo() {
 		deviceInfoBuilder = SignatureOuterClass.Signature.DeviceInfo.newBuilder();
@@ -120,8 +122,9 @@ public class DeviceInfo {
 	 *
 	 * @param androidBoardName AndroidBoardName, for example: "angler"
 	 */
-	public void setAndroidBoardName(String androidBoardName) {
+	public synchronized void setAndroidBoardName(String androidBoardName) {
 		deviceInfoBuilder.setAndroidBoardName(androidBoardName);
+		deviceInfo = null;
 	}
 
 	/**
@@ -132,8 +135,9 @@ public class DeviceInfo {
 	 *
 	 * @param androidBootloader AndroidBootloader, for example: "angler-03.58"
 	 */
-	public void setAndroidBootloader(String androidBootloader) {
+	public synchronized void setAndroidBootloader(String androidBootloader) {
 		deviceInfoBuilder.setAndroidBootloader(androidBootloader);
+		deviceInfo = null;
 	}
 
 	/**
@@ -144,8 +148,9 @@ public class DeviceInfo {
 	 *
 	 * @param deviceBrand DeviceBrand, for example: "google"
 	 */
-	public void setDeviceBrand(String deviceBrand) {
+	public synchronized void setDeviceBrand(String deviceBrand) {
 		deviceInfoBuilder.setDeviceBrand(deviceBrand);
+		deviceInfo = null;
 	}
 
 	/**
@@ -156,8 +161,9 @@ public class DeviceInfo {
 	 *
 	 * @param deviceId DeviceId, for example: "****************"
 	 */
-	public void setDeviceId(String deviceId) {
+	public synchronized void setDeviceId(String deviceId) {
 		deviceInfoBuilder.setDeviceId(deviceId);
+		deviceInfo = null;
 	}
 
 	/**
@@ -168,8 +174,9 @@ public class DeviceInfo {
 	 *
 	 * @param deviceModel DeviceModel, for example: "Nexus 6P"
 	 */
-	public void setDeviceModel(String deviceModel) {
+	public synchronized void setDeviceModel(String deviceModel) {
 		deviceInfoBuilder.setDeviceModel(deviceModel);
+		deviceInfo = null;
 	}
 
 	/**
@@ -180,8 +187,9 @@ public class DeviceInfo {
 	 *
 	 * @param deviceModelBoot DeviceModelBoot, for example: "qcom"
 	 */
-	public void setDeviceModelBoot(String deviceModelBoot) {
+	public synchronized void setDeviceModelBoot(String deviceModelBoot) {
 		deviceInfoBuilder.setDeviceModelBoot(deviceModelBoot);
+		deviceInfo = null;
 	}
 
 	/**
@@ -192,8 +200,9 @@ public class DeviceInfo {
 	 *
 	 * @param deviceModelIdentifier DeviceModelIdentifier, for example: "angler"
 	 */
-	public void setDeviceModelIdentifier(String deviceModelIdentifier) {
+	public synchronized void setDeviceModelIdentifier(String deviceModelIdentifier) {
 		deviceInfoBuilder.setDeviceModelIdentifier(deviceModelIdentifier);
+		deviceInfo = null;
 	}
 
 	/**
@@ -204,8 +213,9 @@ public class DeviceInfo {
 	 *
 	 * @param firmwareBrand FirmwareBrand, for example: "angler"
 	 */
-	public void setFirmwareBrand(String firmwareBrand) {
+	public synchronized void setFirmwareBrand(String firmwareBrand) {
 		deviceInfoBuilder.setFirmwareBrand(firmwareBrand);
+		deviceInfo = null;
 	}
 
 	/**
@@ -217,8 +227,9 @@ public class DeviceInfo {
 	 * @param firmwareFingerprint FirmwareFingerprint,
 	 *     for example: "google/angler/angler:7.0/NPD90G/3051502:user/release-keys"
 	 */
-	public void setFirmwareFingerprint(String firmwareFingerprint) {
+	public synchronized void setFirmwareFingerprint(String firmwareFingerprint) {
 		deviceInfoBuilder.setFirmwareFingerprint(firmwareFingerprint);
+		deviceInfo = null;
 	}
 
 	/**
@@ -229,8 +240,9 @@ public class DeviceInfo {
 	 *
 	 * @param firmwareTags FirmwareTags, for example: "release-keys"
 	 */
-	public void setFirmwareTags(String firmwareTags) {
+	public synchronized void setFirmwareTags(String firmwareTags) {
 		deviceInfoBuilder.setFirmwareTags(firmwareTags);
+		deviceInfo = null;
 	}
 
 	/**
@@ -241,8 +253,9 @@ public class DeviceInfo {
 	 *
 	 * @param firmwareType FirmwareType, for example: "user"
 	 */
-	public void setFirmwareType(String firmwareType) {
+	public synchronized void setFirmwareType(String firmwareType) {
 		deviceInfoBuilder.setFirmwareType(firmwareType);
+		deviceInfo = null;
 	}
 
 	/**
@@ -253,8 +266,9 @@ public class DeviceInfo {
 	 *
 	 * @param hardwareManufacturer HardwareManufacturer, for example: "Huawei"
 	 */
-	public void setHardwareManufacturer(String hardwareManufacturer) {
+	public synchronized void setHardwareManufacturer(String hardwareManufacturer) {
 		deviceInfoBuilder.setHardwareManufacturer(hardwareManufacturer);
+		deviceInfo = null;
 	}
 
 	/**
@@ -265,25 +279,35 @@ public class DeviceInfo {
 	 *
 	 * @param hardwareModel HardwareModel, for example: "Nexus 6P"
 	 */
-	public void setHardwareModel(String hardwareModel) {
+	public synchronized void setHardwareModel(String hardwareModel) {
 		deviceInfoBuilder.setHardwareModel(hardwareModel);
+		deviceInfo = null;
 	}
 
 	/**
-	 * Gets the device info builder
+	 * Gets the device info builder. Changes made through the builder cannot be detected, so once it has been
+	 * retrieved the device info is rebuilt for every request.
 	 *
 	 * @return the device info builder
 	 */
-	public SignatureOuterClass.Signature.DeviceInfo.Builder getBuilder() {
+	public synchronized SignatureOuterClass.Signature.DeviceInfo.Builder getBuilder() {
+		builderShared = true;
+		deviceInfo = null;
 		return deviceInfoBuilder;
 	}
 
 	/**
-	 * Gets DeviceInfo.
+	 * Gets DeviceInfo. The built device info is reused until a setter changes it.
 	 *
 	 * @return DeviceInfo
 	 */
-	public SignatureOuterClass.Signature.DeviceInfo getDeviceInfo() {
-		return deviceInfoBuilder.build();
+	public synchronized SignatureOuterClass.Signature.DeviceInfo getDeviceInfo() {
+		if (builderShared) {
+			return deviceInfoBuilder.build();
+		}
+		if (deviceInfo == null) {
+			deviceInfo = deviceInfoBuilder.build();
+		}
+		return deviceInfo;
 	}
 }
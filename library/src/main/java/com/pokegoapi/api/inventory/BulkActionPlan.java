@@ -0,0 +1,375 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pokegoapi.api.inventory;
+
+import POGOProtos.Inventory.Item.ItemIdOuterClass.ItemId;
+import POGOProtos.Networking.Requests.Messages.EvolvePokemonMessageOuterClass.EvolvePokemonMessage;
+import POGOProtos.Networking.Requests.Messages.RecycleInventoryItemMessageOuterClass.RecycleInventoryItemMessage;
+import POGOProtos.Networking.Requests.Messages.ReleasePokemonMessageOuterClass.ReleasePokemonMessage;
+import POGOProtos.Networking.Requests.Messages.UpgradePokemonMessageOuterClass.UpgradePokemonMessage;
+import POGOProtos.Networking.Requests.RequestTypeOuterClass.RequestType;
+import POGOProtos.Networking.Responses.EvolvePokemonResponseOuterClass.EvolvePokemonResponse;
+import POGOProtos.Networking.Responses.RecycleInventoryItemResponseOuterClass.RecycleInventoryItemResponse;
+import POGOProtos.Networking.Responses.ReleasePokemonResponseOuterClass.ReleasePokemonResponse;
+import POGOProtos.Networking.Responses.UpgradePokemonResponseOuterClass.UpgradePokemonResponse;
+import com.google.protobuf.InvalidProtocolBufferException;
+import com.google.protobuf.ProtocolMessageEnum;
+import com.pokegoapi.api.PokemonGo;
+import com.pokegoapi.api.map.pokemon.EvolutionResult;
+import com.pokegoapi.api.pokemon.Pokemon;
+import com.pokegoapi.exceptions.request.RequestFailedException;
+import com.pokegoapi.main.ServerRequest;
+import com.pokegoapi.main.ServerRequestEnvelope;
+import com.pokegoapi.main.ServerResponse;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Plans a set of pokemon and item actions and sends them in as few envelopes as possible. All releases are sent
+ * as a single request, and all other actions are batched into envelopes of up to {@link #maxRequestsPerEnvelope}
+ * requests, with the common requests only attached once per envelope.
+ */
+public class BulkActionPlan {
+	public enum ActionType {
+		RELEASE,
+		EVOLVE,
+		POWER_UP,
+		RECYCLE
+	}
+
+	private final PokemonGo api;
+
+	@Getter
+	@Setter
+	private int maxRequestsPerEnvelope = 5;
+
+	private final List<Action> actions = new ArrayList<>();
+	private final Set<Long> plannedPokemon = new HashSet<>();
+	private final Map<ItemId, Action> plannedItems = new EnumMap<>(ItemId.class);
+
+	/**
+	 * Creates a new, empty action plan
+	 *
+	 * @param api the current api
+	 */
+	public BulkActionPlan(PokemonGo api) {
+		this.api = api;
+	}
+
+	/**
+	 * Plans to release the given pokemon. Favorite and deployed pokemon are never sent and fail immediately.
+	 *
+	 * @param pokemon the pokemon to release
+	 * @return the planned action
+	 */
+	public Action release(Pokemon pokemon) {
+		return addPokemonAction(new Action(ActionType.RELEASE, pokemon, null, 0));
+	}
+
+	/**
+	 * Plans to evolve the given pokemon
+	 *
+	 * @param pokemon the pokemon to evolve
+	 * @return the planned action
+	 */
+	public Action evolve(Pokemon pokemon) {
+		return evolve(pokemon, null);
+	}
+
+	/**
+	 * Plans to evolve the given pokemon with an evolution item
+	 *
+	 * @param pokemon the pokemon to evolve
+	 * @param evolutionItem the evolution item to use, or null if none is required
+	 * @return the planned action
+	 */
+	public Action evolve(Pokemon pokemon, ItemId evolutionItem) {
+		return addPokemonAction(new Action(ActionType.EVOLVE, pokemon, evolutionItem, 0));
+	}
+
+	/**
+	 * Plans to power up the given pokemon once
+	 *
+	 * @param pokemon the pokemon to power up
+	 * @return the planned action
+	 */
+	public Action powerUp(Pokemon pokemon) {
+		return addPokemonAction(new Action(ActionType.POWER_UP, pokemon, null, 0));
+	}
+
+	/**
+	 * Plans to recycle the given amount of an item. Recycling the same item again adds to the planned count.
+	 *
+	 * @param item the item to recycle
+	 * @param count the amount to recycle
+	 * @return the planned action
+	 */
+	public synchronized Action recycle(ItemId item, int count) {
+		if (item == ItemId.UNRECOGNIZED) {
+			throw new IllegalArgumentException("You cannot recycle UNRECOGNIZED");
+		}
+		if (count <= 0) {
+			throw new IllegalArgumentException("Recycle count must be positive");
+		}
+		Action action = plannedItems.get(item);
+		int total = action != null ? action.count + count : count;
+		if (api.getInventories().getItemBag().getItem(item).getCount() < total) {
+			throw new IllegalArgumentException("You cannot remove more quantity than you have");
+		}
+		if (action == null || action.completed) {
+			action = new Action(ActionType.RECYCLE, null, item, count);
+			plannedItems.put(item, action);
+			actions.add(action);
+		} else {
+			action.count = total;
+		}
+		return action;
+	}
+
+	private synchronized Action addPokemonAction(Action action) {
+		if (!plannedPokemon.add(action.pokemon.getId())) {
+			throw new IllegalArgumentException("Pokemon " + action.pokemon.getId() + " is already planned");
+		}
+		actions.add(action);
+		return action;
+	}
+
+	/**
+	 * @return all planned actions, in the order they were planned
+	 */
+	public synchronized List<Action> getActions() {
+		return Collections.unmodifiableList(new ArrayList<>(actions));
+	}
+
+	/**
+	 * Sends all actions that have not yet completed. Results are applied to the inventories as each envelope
+	 * returns. If an envelope fails, its actions record the exception and the remaining actions stay pending so
+	 * this plan can be executed again.
+	 *
+	 * @return all planned actions with their outcomes
+	 * @throws RequestFailedException if an exception occurred while sending requests
+	 */
+	public synchronized List<Action> execute() throws RequestFailedException {
+		List<ServerRequest> requests = new ArrayList<>();
+		List<List<Action>> owners = new ArrayList<>();
+
+		ReleasePokemonMessage.Builder releaseBuilder = ReleasePokemonMessage.newBuilder();
+		List<Action> releases = new ArrayList<>();
+		for (Action action : actions) {
+			if (action.completed) {
+				continue;
+			}
+			action.exception = null;
+			switch (action.type) {
+				case RELEASE:
+					if (action.pokemon.isFavorite() || action.pokemon.isDeployed()) {
+						action.complete(ReleasePokemonResponse.Result.FAILED, false);
+					} else {
+						releaseBuilder.addPokemonIds(action.pokemon.getId());
+						releases.add(action);
+					}
+					break;
+				case EVOLVE:
+					EvolvePokemonMessage.Builder evolveBuilder = EvolvePokemonMessage.newBuilder()
+							.setPokemonId(action.pokemon.getId());
+					if (action.item != null) {
+						evolveBuilder.setEvolutionItemRequirement(action.item);
+					}
+					addRequest(requests, owners, action,
+							new ServerRequest(RequestType.EVOLVE_POKEMON, evolveBuilder.build()));
+					break;
+				case POWER_UP:
+					UpgradePokemonMessage upgrade = UpgradePokemonMessage.newBuilder()
+							.setPokemonId(action.pokemon.getId())
+							.build();
+					addRequest(requests, owners, action, new ServerRequest(RequestType.UPGRADE_POKEMON, upgrade));
+					break;
+				case RECYCLE:
+					RecycleInventoryItemMessage recycle = RecycleInventoryItemMessage.newBuilder()
+							.setItemId(action.item)
+							.setCount(action.count)
+							.build();
+					addRequest(requests, owners, action,
+							new ServerRequest(RequestType.RECYCLE_INVENTORY_ITEM, recycle));
+					break;
+				default:
+					break;
+			}
+		}
+		if (releases.size() > 0) {
+			requests.add(0, new ServerRequest(RequestType.RELEASE_POKEMON, releaseBuilder.build()));
+			owners.add(0, releases);
+		}
+
+		int perEnvelope = Math.max(1, maxRequestsPerEnvelope);
+		for (int start = 0; start < requests.size(); start += perEnvelope) {
+			int end = Math.min(requests.size(), start + perEnvelope);
+			ServerRequestEnvelope envelope = ServerRequestEnvelope.createCommons(requests.get(start), api);
+			for (int i = start + 1; i < end; i++) {
+				envelope.addBatchedRequest(requests.get(i));
+			}
+			ServerResponse response;
+			try {
+				response = api.getRequestHandler().sendServerRequests(envelope);
+			} catch (RequestFailedException e) {
+				for (int i = start; i < end; i++) {
+					for (Action action : owners.get(i)) {
+						action.exception = e;
+					}
+				}
+				throw e;
+			}
+			// Request interceptors may have replaced the requests, the envelope holds the requests that were sent
+			handleResponse(response, envelope.getRequest(), owners.get(start));
+			List<ServerRequest> batched = envelope.getBatchedRequests();
+			for (int i = start + 1; i < end; i++) {
+				handleResponse(response, batched.get(i - start - 1), owners.get(i));
+			}
+		}
+		return getActions();
+	}
+
+	private void addRequest(List<ServerRequest> requests, List<List<Action>> owners, Action action,
+			ServerRequest request) {
+		requests.add(request);
+		owners.add(Collections.singletonList(action));
+	}
+
+	/**
+	 * Applies the response of a single request to the inventories and the actions it was sent for. Actions of a
+	 * request that was not answered stay pending with an exception, so the next execution retries them.
+	 *
+	 * @param response the response of the envelope the request was sent in
+	 * @param request the request
+	 * @param owners the actions this request was sent for
+	 */
+	private void handleResponse(ServerResponse response, ServerRequest request, List<Action> owners) {
+		if (request == null || !response.has(request)) {
+			RequestFailedException exception = new RequestFailedException("No response to "
+					+ (request != null ? request.getType() : "removed request"));
+			for (Action action : owners) {
+				action.exception = exception;
+			}
+			return;
+		}
+		Inventories inventories = api.getInventories();
+		try {
+			switch (request.getType()) {
+				case RELEASE_POKEMON:
+					ReleasePokemonResponse release = ReleasePokemonResponse.parseFrom(request.getData());
+					boolean released = release.getResult() == ReleasePokemonResponse.Result.SUCCESS;
+					List<Long> removed = new ArrayList<>(owners.size());
+					for (Action action : owners) {
+						if (released) {
+							removed.add(action.pokemon.getId());
+						}
+						action.complete(release.getResult(), released);
+					}
+					if (released) {
+						inventories.getPokebank().applyDelta(removed, Collections.<Pokemon>emptyList());
+					}
+					break;
+				case EVOLVE_POKEMON:
+					Action evolve = owners.get(0);
+					EvolutionResult result = new EvolutionResult(api,
+							EvolvePokemonResponse.parseFrom(request.getData()));
+					if (result.isSuccessful()) {
+						evolve.evolvedPokemon = result.getEvolvedPokemon();
+						inventories.getPokebank().removePokemon(evolve.pokemon);
+						inventories.getPokebank().addPokemon(evolve.evolvedPokemon);
+					}
+					evolve.complete(result.getResult(), result.isSuccessful());
+					break;
+				case UPGRADE_POKEMON:
+					Action upgrade = owners.get(0);
+					UpgradePokemonResponse upgradeResponse = UpgradePokemonResponse.parseFrom(request.getData());
+					boolean upgraded = upgradeResponse.getResult() == UpgradePokemonResponse.Result.SUCCESS;
+					if (upgraded) {
+						upgrade.pokemon.applyProto(upgradeResponse.getUpgradedPokemon());
+						inventories.getPokebank().updatePokemon(upgrade.pokemon);
+					}
+					upgrade.complete(upgradeResponse.getResult(), upgraded);
+					break;
+				case RECYCLE_INVENTORY_ITEM:
+					Action recycle = owners.get(0);
+					RecycleInventoryItemResponse recycleResponse
+							= RecycleInventoryItemResponse.parseFrom(request.getData());
+					boolean recycled = recycleResponse.getResult() == RecycleInventoryItemResponse.Result.SUCCESS;
+					if (recycled) {
+						ItemBag itemBag = inventories.getItemBag();
+						Item item = itemBag.getItem(recycle.item);
+						item.setCount(recycleResponse.getNewCount());
+						if (item.getCount() <= 0) {
+							itemBag.removeItem(recycle.item);
+						}
+					}
+					recycle.complete(recycleResponse.getResult(), recycled);
+					break;
+				default:
+					break;
+			}
+		} catch (InvalidProtocolBufferException e) {
+			for (Action action : owners) {
+				action.exception = new RequestFailedException(e);
+			}
+		}
+	}
+
+	/**
+	 * A single planned action and its outcome
+	 */
+	public static final class Action {
+		@Getter
+		private final ActionType type;
+		@Getter
+		private final Pokemon pokemon;
+		@Getter
+		private final ItemId item;
+		@Getter
+		private int count;
+		@Getter
+		private boolean completed;
+		@Getter
+		private boolean successful;
+		@Getter
+		private ProtocolMessageEnum result;
+		@Getter
+		private Pokemon evolvedPokemon;
+		@Getter
+		private Exception exception;
+
+		private Action(ActionType type, Pokemon pokemon, ItemId item, int count) {
+			this.type = type;
+			this.pokemon = pokemon;
+			this.item = item;
+			this.count = count;
+		}
+
+		private void complete(ProtocolMessageEnum result, boolean successful) {
+			this.result = result;
+			this.successful = successful;
+			this.completed = true;
+		}
+	}
+}
@@ -19,16 +19,16 @@ import POGOProtos.Enums.PokemonFamilyIdOuterClass.PokemonFamilyId;
 import com.pokegoapi.api.PokemonGo;
 import lombok.ToString;
 
-import java.util.Collections;
-import java.util.HashMap;
+import java.util.EnumMap;
 import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
 
 @ToString
 public class CandyJar {
+	private static final PokemonFamilyId[] FAMILIES = PokemonFamilyId.values();
+
 	private final PokemonGo api;
-	private final Map<PokemonFamilyId, Integer> candies =
-			Collections.synchronizedMap(new HashMap<PokemonFamilyId, Integer>());
-	private final Object lock = new Object();
+	private final AtomicIntegerArray candies = new AtomicIntegerArray(FAMILIES.length);
 
 	public CandyJar(PokemonGo api) {
 		this.api = api;
@@ -38,8 +38,8 @@ public class CandyJar {
 	 * Resets this candy jar and removes all candies
 	 */
 	public void reset() {
-		synchronized (this.lock) {
-			candies.clear();
+		for (int i = 0; i < FAMILIES.length; i++) {
+			candies.set(i, 0);
 		}
 	}
 
@@ -50,8 +50,17 @@ public class CandyJar {
 	 * @param candies Amount to set it to
 	 */
 	public void setCandy(PokemonFamilyId family, int candies) {
-		synchronized (this.lock) {
-			this.candies.put(family, candies);
+		this.candies.set(family.ordinal(), candies);
+	}
+
+	/**
+	 * Sets the number of candies for all given families
+	 *
+	 * @param candies the amount of candies for each family
+	 */
+	public void setCandies(Map<PokemonFamilyId, Integer> candies) {
+		for (Map.Entry<PokemonFamilyId, Integer> entry : candies.entrySet()) {
+			this.candies.set(entry.getKey().ordinal(), entry.getValue());
 		}
 	}
 
@@ -62,13 +71,7 @@ public class CandyJar {
 	 * @param amount Amount of candies to add
 	 */
 	public void addCandy(PokemonFamilyId family, int amount) {
-		synchronized (this.lock) {
-			if (candies.containsKey(family)) {
-				candies.put(family, candies.get(family) + amount);
-			} else {
-				candies.put(family, amount);
-			}
-		}
+		candies.addAndGet(family.ordinal(), amount);
 	}
 
 	/**
@@ -78,17 +81,11 @@ public class CandyJar {
 	 * @param amount Amount of candies to remove
 	 */
 	public void removeCandy(PokemonFamilyId family, int amount) {
-		synchronized (this.lock) {
-			if (candies.containsKey(family)) {
-				if (candies.get(family) - amount < 0) {
-					candies.put(family, 0);
-				} else {
-					candies.put(family, candies.get(family) - amount);
-				}
-			} else {
-				candies.put(family, 0);
-			}
-		}
+		int index = family.ordinal();
+		int current;
+		do {
+			current = candies.get(index);
+		} while (!candies.compareAndSet(index, current, Math.max(0, current - amount)));
 	}
 
 	/**
@@ -98,23 +95,22 @@ public class CandyJar {
 	 * @return number of candies in jar
 	 */
 	public int getCandies(PokemonFamilyId family) {
-		synchronized (this.lock) {
-			if (candies.containsKey(family)) {
-				return this.candies.get(family);
-			} else {
-				return 0;
-			}
-		}
+		return candies.get(family.ordinal());
 	}
 
 	/**
-	 * Gets all candies in the jar
+	 * Gets a snapshot of all families with candies in the jar
 	 *
 	 * @return the candies
 	 */
 	public Map<PokemonFamilyId, Integer> getCandies() {
-		synchronized (lock) {
-			return candies;
+		Map<PokemonFamilyId, Integer> snapshot = new EnumMap<>(PokemonFamilyId.class);
+		for (int i = 0; i < FAMILIES.length; i++) {
+			int count = candies.get(i);
+			if (count > 0) {
+				snapshot.put(FAMILIES[i], count);
+			}
 		}
+		return snapshot;
 	}
 }
@@ -101,6 +101,15 @@ public class EggIncubator {
 		return proto.getId();
 	}
 
+	/**
+	 * Get the id of the egg in this incubator.
+	 *
+	 * @return the egg id, 0 if this incubator is empty
+	 */
+	public long getEggId() {
+		return proto.getPokemonId();
+	}
+
 	/**
 	 * Get incubator type.
 	 *
@@ -20,14 +20,17 @@ import POGOProtos.Networking.Requests.RequestTypeOuterClass.RequestType;
 import POGOProtos.Networking.Responses.GetHatchedEggsResponseOuterClass.GetHatchedEggsResponse;
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.pokegoapi.api.PokemonGo;
+import com.pokegoapi.api.listener.IncubatorListener;
 import com.pokegoapi.api.listener.PokemonListener;
 import com.pokegoapi.api.pokemon.EggPokemon;
 import com.pokegoapi.api.pokemon.HatchedEgg;
 import com.pokegoapi.exceptions.request.RequestFailedException;
 import com.pokegoapi.main.ServerRequest;
 import lombok.Getter;
+import lombok.Setter;
 
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
 import java.util.HashSet;
 import java.util.List;
@@ -43,6 +46,32 @@ public class Hatchery {
 
 	private final Object lock = new Object();
 
+	/**
+	 * The distance (km) from its target at which an incubated egg is reported as about to hatch
+	 */
+	@Getter
+	@Setter
+	private double aboutToHatchDistance = 0.1;
+
+	@Getter
+	private volatile double kmWalked;
+	@Getter
+	private volatile double nextHatchKm = Double.POSITIVE_INFINITY;
+
+	/**
+	 * The interval (ms) at which hatched eggs are requested even if no egg is known to have hatched
+	 */
+	@Getter
+	@Setter
+	private long hatchedEggsInterval = 10 * 60 * 1000;
+
+	private volatile boolean hatchPending;
+	private volatile long lastHatchedEggsUpdate;
+
+	private final Set<Long> incubated = new HashSet<>();
+	private final Set<Long> aboutToHatch = new HashSet<>();
+	private final Set<Long> hatched = new HashSet<>();
+
 	public Hatchery(PokemonGo api) {
 		this.api = api;
 	}
@@ -54,7 +83,14 @@ public class Hatchery {
 		synchronized (this.lock) {
 			eggs.clear();
 			hatchedEggs.clear();
+			incubated.clear();
+			aboutToHatch.clear();
+			hatched.clear();
 		}
+		kmWalked = 0;
+		nextHatchKm = Double.POSITIVE_INFINITY;
+		hatchPending = false;
+		lastHatchedEggsUpdate = 0;
 	}
 
 	/**
@@ -69,17 +105,34 @@ public class Hatchery {
 		}
 	}
 
+	/**
+	 * Adds all given eggs to this hatchery under a single lock acquisition
+	 *
+	 * @param eggs the eggs to add
+	 */
+	public void addEggs(Collection<EggPokemon> eggs) {
+		for (EggPokemon egg : eggs) {
+			egg.setApi(api);
+		}
+		synchronized (this.lock) {
+			this.eggs.addAll(eggs);
+		}
+	}
+
 	/**
 	 * Adds the given hatched egg to the hatchedEggs set.
 	 *
 	 * @param egg the egg to add
 	 */
 	public void addHatchedEgg(HatchedEgg egg) {
+		addHatchedEgg(egg, api.getListeners(PokemonListener.class));
+	}
+
+	private void addHatchedEgg(HatchedEgg egg, List<PokemonListener> listeners) {
 		synchronized (this.lock) {
 			hatchedEggs.add(egg);
 		}
 		boolean remove = false;
-		List<PokemonListener> listeners = api.getListeners(PokemonListener.class);
 		for (PokemonListener listener : listeners) {
 			remove |= listener.onEggHatch(api, egg);
 		}
@@ -106,7 +159,13 @@ public class Hatchery {
 	 * @return the hatched eggs contained in the response
 	 */
 	public List<HatchedEgg> updateHatchedEggs(GetHatchedEggsResponse response) {
+		hatchPending = false;
+		lastHatchedEggsUpdate = api.currentTimeMillis();
 		List<HatchedEgg> eggs = new ArrayList<>();
+		if (response.getHatchedPokemonCount() == 0) {
+			return eggs;
+		}
+		List<PokemonListener> listeners = api.getListeners(PokemonListener.class);
 		for (int i = 0; i < response.getHatchedPokemonCount(); i++) {
 			HatchedEgg egg = new HatchedEgg(
 					response.getPokemonId(i),
@@ -116,11 +175,99 @@ public class Hatchery {
 					response.getHatchedPokemon(i),
 					api);
 			eggs.add(egg);
-			addHatchedEgg(egg);
+			addHatchedEgg(egg, listeners);
 		}
 		return eggs;
 	}
 
+	/**
+	 * Updates the progress of all incubated eggs with the distance walked by the player, and notifies all
+	 * {@link IncubatorListener}s of eggs that are about to hatch or reached their target distance.
+	 * If an egg reached its target or left its incubator, hatched eggs are requested until they are received.
+	 *
+	 * @param incubators the current incubators
+	 * @param kmWalked the total distance walked by the player (km)
+	 */
+	public void updateProgress(Collection<EggIncubator> incubators, double kmWalked) {
+		List<EggIncubator> nearlyHatched = new ArrayList<>();
+		List<EggIncubator> reached = new ArrayList<>();
+		double nextHatchKm = Double.POSITIVE_INFINITY;
+		boolean pending = false;
+		synchronized (this.lock) {
+			Set<Long> incubated = new HashSet<>();
+			for (EggIncubator incubator : incubators) {
+				long egg = incubator.getEggId();
+				if (egg == 0) {
+					continue;
+				}
+				incubated.add(egg);
+				double target = incubator.getKmTarget();
+				nextHatchKm = Math.min(nextHatchKm, target);
+				if (kmWalked >= target) {
+					pending = true;
+					if (hatched.add(egg)) {
+						reached.add(incubator);
+					}
+				} else if (target - kmWalked <= aboutToHatchDistance && aboutToHatch.add(egg)) {
+					nearlyHatched.add(incubator);
+				}
+			}
+			// An egg that left its incubator has hatched, even if its target was never seen as reached
+			if (!incubated.containsAll(this.incubated)) {
+				pending = true;
+			}
+			this.incubated.clear();
+			this.incubated.addAll(incubated);
+			aboutToHatch.retainAll(incubated);
+			hatched.retainAll(incubated);
+			this.kmWalked = kmWalked;
+			this.nextHatchKm = nextHatchKm;
+			if (pending) {
+				hatchPending = true;
+			}
+		}
+
+		if (!nearlyHatched.isEmpty() || !reached.isEmpty()) {
+			List<IncubatorListener> listeners = api.getListeners(IncubatorListener.class);
+			for (IncubatorListener listener : listeners) {
+				for (EggIncubator incubator : nearlyHatched) {
+					listener.onEggAboutToHatch(api, incubator, incubator.getKmTarget() - kmWalked);
+				}
+				for (EggIncubator incubator : reached) {
+					listener.onEggHatched(api, incubator);
+				}
+			}
+		}
+	}
+
+	/**
+	 * Checks if an incubated egg can have hatched, meaning the walked distance reached the target of an incubator
+	 * which has not yet been emptied by the server
+	 *
+	 * @return true if an egg may have hatched
+	 */
+	public boolean isHatchPossible() {
+		return kmWalked >= nextHatchKm;
+	}
+
+	/**
+	 * Checks if hatched eggs should be requested with the next envelope: when an egg reached its target or left
+	 * its incubator since hatched eggs were last received, or when the fallback interval has passed
+	 *
+	 * @return true if hatched eggs should be requested
+	 */
+	public boolean isHatchedEggsRequestDue() {
+		return hatchPending || isHatchPossible()
+				|| api.currentTimeMillis() - lastHatchedEggsUpdate >= hatchedEggsInterval;
+	}
+
+	/**
+	 * @return the distance left to walk until the next incubated egg hatches (km), infinity if no egg is incubated
+	 */
+	public double getKmUntilNextHatch() {
+		return Math.max(0, nextHatchKm - kmWalked);
+	}
+
 	/**
 	 * Get if eggs has hatched.
 	 *
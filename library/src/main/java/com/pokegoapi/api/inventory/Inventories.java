@@ -15,6 +15,8 @@
 
 package com.pokegoapi.api.inventory;
 
+import POGOProtos.Data.Player.PlayerStatsOuterClass.PlayerStats;
+import POGOProtos.Data.PokedexEntryOuterClass.PokedexEntry;
 import POGOProtos.Data.PokemonDataOuterClass.PokemonData;
 import POGOProtos.Enums.PokemonFamilyIdOuterClass.PokemonFamilyId;
 import POGOProtos.Enums.PokemonIdOuterClass.PokemonId;
@@ -32,22 +34,35 @@ import POGOProtos.Networking.Requests.RequestTypeOuterClass.RequestType;
 import POGOProtos.Networking.Responses.GetHoloInventoryResponseOuterClass.GetHoloInventoryResponse;
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.pokegoapi.api.PokemonGo;
+import com.pokegoapi.api.listener.InventoryListener;
 import com.pokegoapi.api.pokemon.EggPokemon;
 import com.pokegoapi.api.pokemon.Pokemon;
 import com.pokegoapi.exceptions.request.RequestFailedException;
 import com.pokegoapi.main.ServerRequest;
+import com.pokegoapi.util.Log;
 import lombok.Getter;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
 import java.util.HashMap;
 import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 
 public class Inventories {
+	private static final String TAG = Inventories.class.getSimpleName();
 
 	private final PokemonGo api;
 	@Getter
@@ -70,6 +85,19 @@ public class Inventories {
 	@Getter
 	private final Object lock = new Object();
 
+	/**
+	 * Delivers inventory events in order on a single thread, which stops when idle
+	 */
+	private final ThreadPoolExecutor eventExecutor = new ThreadPoolExecutor(0, 1, 60, TimeUnit.SECONDS,
+			new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "Inventory Events");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+
 	/**
 	 * Creates Inventories and initializes content.
 	 *
@@ -115,6 +143,14 @@ public class Inventories {
 				incubators.clear();
 			}
 			hatchery.reset();
+			InventorySnapshotStore store = api.getInventorySnapshotStore();
+			if (store != null) {
+				try {
+					store.clear();
+				} catch (IOException e) {
+					Log.e(TAG, "Failed to clear inventory snapshot", e);
+				}
+			}
 		}
 		GetHoloInventoryMessage invReqMsg = GetHoloInventoryMessage.newBuilder()
 				.setLastTimestampMs(lastInventoryUpdate)
@@ -139,32 +175,93 @@ public class Inventories {
 	 * @throws RequestFailedException if a request fails while sending a request
 	 */
 	public void updateInventories(GetHoloInventoryResponse response) throws RequestFailedException {
-		lastInventoryUpdate = api.currentTimeMillis();
+		// Inventory requests are built from the last update, so without one the server sent the complete inventory
+		boolean complete = lastInventoryUpdate == 0;
+		long timestamp = response.getInventoryDelta().getNewTimestampMs();
+		lastInventoryUpdate = timestamp > 0 ? timestamp : api.currentTimeMillis();
+
+		applyInventories(response);
+
+		InventorySnapshotStore store = api.getInventorySnapshotStore();
+		if (store != null) {
+			try {
+				if (complete) {
+					store.reset();
+				}
+				store.record(response, lastInventoryUpdate);
+			} catch (IOException e) {
+				Log.e(TAG, "Failed to save inventory snapshot", e);
+			}
+		}
+	}
+
+	/**
+	 * Restores the inventories from the given snapshot, so the next inventory request only asks for the delta
+	 * since the snapshot was saved
+	 *
+	 * @param store the snapshot store of this account
+	 * @return true if a snapshot was restored
+	 * @throws RequestFailedException if a request fails while sending a request
+	 */
+	public boolean restore(InventorySnapshotStore store) throws RequestFailedException {
+		if (!store.hasSnapshot()) {
+			return false;
+		}
+		lastInventoryUpdate = store.getTimestamp();
+		applyInventories(store.getSnapshot());
+		return true;
+	}
+
+	/**
+	 * Applies the inventory delta of the given response to all stores
+	 *
+	 * @param response the get inventory response
+	 * @throws RequestFailedException if a request fails while sending a request
+	 */
+	private void applyInventories(GetHoloInventoryResponse response) throws RequestFailedException {
+		// Classify the delta in one pass, then apply it to each store in bulk
+		Set<Long> removedPokemon = new HashSet<>();
+		LinkedHashMap<Long, Pokemon> addedPokemon = new LinkedHashMap<>();
+		List<EggPokemon> eggs = new ArrayList<>();
+		Map<ItemId, Item> items = new EnumMap<>(ItemId.class);
+		Set<ItemId> emptiedItems = EnumSet.noneOf(ItemId.class);
+		Map<PokemonFamilyId, Integer> candies = new HashMap<>();
+		List<PokedexEntry> pokedexEntries = new ArrayList<>();
+		Map<String, EggIncubator> updatedIncubators = new LinkedHashMap<>();
+		PlayerStats playerStats = null;
+
+		List<InventoryListener> listeners = api.getListeners(InventoryListener.class);
 
 		for (InventoryItem inventoryItem : response.getInventoryDelta().getInventoryItemsList()) {
-			
 			// Remove released Pokemon from bag.
-			if (inventoryItem.getDeletedItem().getPokemonId() != 0) {
-				pokebank.removePokemon(inventoryItem.getDeletedItem().getPokemonId());
+			long deletedPokemon = inventoryItem.getDeletedItem().getPokemonId();
+			if (deletedPokemon != 0) {
+				addedPokemon.remove(deletedPokemon);
+				removedPokemon.add(deletedPokemon);
 			}
-			
+
 			InventoryItemData itemData = inventoryItem.getInventoryItemData();
 
 			if (itemData.hasPokemonData()) {
 				PokemonData pokemonData = itemData.getPokemonData();
 				if (pokemonData.getPokemonId() == PokemonId.MISSINGNO && pokemonData.getIsEgg()) {
-					hatchery.addEgg(new EggPokemon(pokemonData));
+					eggs.add(new EggPokemon(pokemonData));
 				}
 
-				if (pokemonData.getPokemonId() != PokemonId.MISSINGNO) {
-					pokebank.addPokemon(new Pokemon(api, pokemonData));
+				if (pokemonData.getPokemonId() != PokemonId.MISSINGNO
+						&& !addedPokemon.containsKey(pokemonData.getId())) {
+					addedPokemon.put(pokemonData.getId(), new Pokemon(api, pokemonData));
 				}
 			}
 
 			if (itemData.hasItem()) {
 				ItemData item = itemData.getItem();
 				if (item.getCount() > 0) {
-					itemBag.addItem(new Item(api, item, itemBag));
+					items.put(item.getItemId(), new Item(api, item, itemBag));
+					emptiedItems.remove(item.getItemId());
+				} else {
+					items.remove(item.getItemId());
+					emptiedItems.add(item.getItemId());
 				}
 			}
 
@@ -172,28 +269,24 @@ public class Inventories {
 				Candy candy = itemData.getCandy();
 				if (candy.getFamilyId() != PokemonFamilyId.UNRECOGNIZED
 						&& candy.getFamilyId() != PokemonFamilyId.FAMILY_UNSET) {
-					candyjar.setCandy(candy.getFamilyId(), candy.getCandy());
+					candies.put(candy.getFamilyId(), candy.getCandy());
 				}
 			}
 
 			// player stats
 			if (itemData.hasPlayerStats()) {
-				api.getPlayerProfile().setStats(new Stats(itemData.getPlayerStats()));
+				playerStats = itemData.getPlayerStats();
 			}
 
 			// pokedex
 			if (itemData.hasPokedexEntry()) {
-				pokedex.add(itemData.getPokedexEntry());
+				pokedexEntries.add(itemData.getPokedexEntry());
 			}
 
 			if (itemData.hasEggIncubators()) {
 				EggIncubators eggIncubators = itemData.getEggIncubators();
 				for (EggIncubatorOuterClass.EggIncubator incubator : eggIncubators.getEggIncubatorList()) {
-					EggIncubator eggIncubator = new EggIncubator(api, incubator);
-					synchronized (this.lock) {
-						incubators.remove(eggIncubator);
-						incubators.add(eggIncubator);
-					}
+					updatedIncubators.put(incubator.getId(), new EggIncubator(api, incubator));
 				}
 			}
 
@@ -203,24 +296,162 @@ public class Inventories {
 					this.appliedItems.put(appliedItem.getItemId(), appliedItem);
 				}
 			}
+		}
 
-			Set<ItemId> stale = new HashSet<>();
-			for (Map.Entry<ItemId, AppliedItem> entry : appliedItems.entrySet()) {
-				ItemId itemId = entry.getKey();
-				AppliedItem applied = entry.getValue();
-				if (api.currentTimeMillis() >= applied.getExpireMs()) {
-					stale.add(itemId);
-				} else {
-					Item item = itemBag.getItem(itemId);
-					item.setApplied(applied);
-					itemBag.addItem(item);
+		InventoryDelta delta = null;
+		if (!listeners.isEmpty()) {
+			delta = createDelta(removedPokemon, addedPokemon.keySet(), items.values(), emptiedItems, candies,
+					updatedIncubators.values());
+		}
+
+		if (!removedPokemon.isEmpty() || !addedPokemon.isEmpty()) {
+			pokebank.applyDelta(removedPokemon, addedPokemon.values());
+		}
+		if (!eggs.isEmpty()) {
+			hatchery.addEggs(eggs);
+		}
+		if (!items.isEmpty()) {
+			itemBag.addItems(items.values());
+		}
+		for (ItemId item : emptiedItems) {
+			itemBag.removeItem(item);
+		}
+		if (!candies.isEmpty()) {
+			candyjar.setCandies(candies);
+		}
+		if (playerStats != null) {
+			api.getPlayerProfile().setStats(new Stats(playerStats));
+		}
+		if (!pokedexEntries.isEmpty()) {
+			pokedex.addAll(pokedexEntries);
+		}
+		if (!updatedIncubators.isEmpty()) {
+			replaceIncubators(updatedIncubators);
+		}
+		if (!appliedItems.isEmpty()) {
+			sweepAppliedItems();
+		}
+		if (playerStats != null || !updatedIncubators.isEmpty()) {
+			Stats stats = api.getPlayerProfile().getStats();
+			if (stats != null) {
+				hatchery.updateProgress(getIncubatorSnapshot(), stats.getKmWalked());
+			}
+		}
+
+		if (delta != null && !delta.isEmpty()) {
+			dispatchDelta(delta, listeners);
+		}
+	}
+
+	/**
+	 * Computes the changes of a classified inventory update, before it is applied to the stores
+	 *
+	 * @param removedPokemon the ids of removed pokemon, ids that are not in the pokebank such as eggs are skipped
+	 * @param addedPokemon the ids of added or updated pokemon
+	 * @param items the updated items
+	 * @param emptiedItems the items whose count dropped to zero
+	 * @param candies the updated candy counts
+	 * @param incubators the updated incubators
+	 * @return the changes in this update
+	 */
+	private InventoryDelta createDelta(Set<Long> removedPokemon, Set<Long> addedPokemon, Collection<Item> items,
+			Set<ItemId> emptiedItems, Map<PokemonFamilyId, Integer> candies, Collection<EggIncubator> incubators) {
+		InventoryDelta delta = new InventoryDelta(lastInventoryUpdate);
+		for (Long id : removedPokemon) {
+			if (pokebank.getPokemonById(id) != null) {
+				delta.removePokemon(id);
+			}
+		}
+		for (Long id : addedPokemon) {
+			delta.addPokemon(id, pokebank.getPokemonById(id) != null);
+		}
+		for (Item item : items) {
+			delta.setItemCount(item.getItemId(), itemBag.getItemCount(item.getItemId()), item.getCount());
+		}
+		for (ItemId item : emptiedItems) {
+			delta.setItemCount(item, itemBag.getItemCount(item), 0);
+		}
+		for (Map.Entry<PokemonFamilyId, Integer> entry : candies.entrySet()) {
+			PokemonFamilyId family = entry.getKey();
+			delta.setCandy(family, candyjar.getCandies(family), entry.getValue());
+		}
+		for (EggIncubator incubator : incubators) {
+			delta.updateIncubator(incubator);
+		}
+		return delta;
+	}
+
+	/**
+	 * Sends the given delta to all listeners on the event thread
+	 *
+	 * @param delta the changes to send
+	 * @param listeners the listeners to send to
+	 */
+	private void dispatchDelta(final InventoryDelta delta, final List<InventoryListener> listeners) {
+		eventExecutor.execute(new Runnable() {
+			@Override
+			public void run() {
+				for (InventoryListener listener : listeners) {
+					try {
+						listener.onInventoryChanged(api, delta);
+					} catch (RuntimeException e) {
+						Log.e(TAG, "Inventory listener failed", e);
+					}
+				}
+			}
+		});
+	}
+
+	/**
+	 * Replaces the incubators with the same id as the given incubators and adds the others,
+	 * under a single lock acquisition
+	 *
+	 * @param updated the updated incubators by id
+	 */
+	private void replaceIncubators(Map<String, EggIncubator> updated) {
+		Map<String, EggIncubator> remaining = new HashMap<>(updated);
+		synchronized (this.lock) {
+			synchronized (incubators) {
+				for (int i = 0; i < incubators.size(); i++) {
+					EggIncubator incubator = remaining.remove(incubators.get(i).getId());
+					if (incubator != null) {
+						incubators.set(i, incubator);
+					}
 				}
+				incubators.addAll(remaining.values());
 			}
+		}
+	}
+
+	/**
+	 * @return a copy of the current incubators
+	 */
+	private List<EggIncubator> getIncubatorSnapshot() {
+		synchronized (incubators) {
+			return new ArrayList<>(incubators);
+		}
+	}
 
-			for (ItemId item : stale) {
-				appliedItems.remove(item);
-				itemBag.getItem(item).removeApplied();
+	/**
+	 * Removes expired applied items and marks the others as applied in the item bag
+	 */
+	private void sweepAppliedItems() {
+		long time = api.currentTimeMillis();
+		List<Item> applied = new ArrayList<>();
+		Iterator<Map.Entry<ItemId, AppliedItem>> iterator = appliedItems.entrySet().iterator();
+		while (iterator.hasNext()) {
+			Map.Entry<ItemId, AppliedItem> entry = iterator.next();
+			Item item = itemBag.getItem(entry.getKey());
+			if (time >= entry.getValue().getExpireMs()) {
+				iterator.remove();
+				item.removeApplied();
+			} else {
+				item.setApplied(entry.getValue());
+				applied.add(item);
 			}
 		}
+		if (!applied.isEmpty()) {
+			itemBag.addItems(applied);
+		}
 	}
 }
@@ -0,0 +1,164 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pokegoapi.api.inventory;
+
+import POGOProtos.Enums.PokemonFamilyIdOuterClass.PokemonFamilyId;
+import POGOProtos.Inventory.Item.ItemIdOuterClass.ItemId;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * The changes applied by a single inventory update
+ */
+public class InventoryDelta {
+	@Getter
+	private final long timestamp;
+
+	private final List<Long> addedPokemon = new ArrayList<>();
+	private final List<Long> updatedPokemon = new ArrayList<>();
+	private final List<Long> removedPokemon = new ArrayList<>();
+	private final List<EggIncubator> updatedIncubators = new ArrayList<>();
+
+	private final Map<ItemId, Integer> itemCounts = new EnumMap<>(ItemId.class);
+	private final Map<ItemId, Integer> itemChanges = new EnumMap<>(ItemId.class);
+	private final Map<PokemonFamilyId, Integer> candyCounts = new EnumMap<>(PokemonFamilyId.class);
+	private final Map<PokemonFamilyId, Integer> candyChanges = new EnumMap<>(PokemonFamilyId.class);
+
+	InventoryDelta(long timestamp) {
+		this.timestamp = timestamp;
+	}
+
+	void addPokemon(long id, boolean existing) {
+		if (existing) {
+			updatedPokemon.add(id);
+		} else {
+			addedPokemon.add(id);
+		}
+	}
+
+	void removePokemon(long id) {
+		removedPokemon.add(id);
+	}
+
+	void updateIncubator(EggIncubator incubator) {
+		updatedIncubators.add(incubator);
+	}
+
+	void setItemCount(ItemId item, int previous, int count) {
+		if (previous != count) {
+			itemCounts.put(item, count);
+			itemChanges.put(item, count - previous);
+		}
+	}
+
+	void setCandy(PokemonFamilyId family, int previous, int count) {
+		if (previous != count) {
+			candyCounts.put(family, count);
+			candyChanges.put(family, count - previous);
+		}
+	}
+
+	/**
+	 * @return true if this update did not change anything tracked by this delta
+	 */
+	public boolean isEmpty() {
+		return addedPokemon.isEmpty() && updatedPokemon.isEmpty() && removedPokemon.isEmpty()
+				&& updatedIncubators.isEmpty() && itemChanges.isEmpty() && candyChanges.isEmpty();
+	}
+
+	/**
+	 * @return the ids of pokemon that were not in the inventory before this update
+	 */
+	public List<Long> getAddedPokemon() {
+		return Collections.unmodifiableList(addedPokemon);
+	}
+
+	/**
+	 * @return the ids of pokemon that were already in the inventory and changed in this update
+	 */
+	public List<Long> getUpdatedPokemon() {
+		return Collections.unmodifiableList(updatedPokemon);
+	}
+
+	/**
+	 * @return the ids of pokemon removed from the pokebank, eggs are not included
+	 */
+	public List<Long> getRemovedPokemon() {
+		return Collections.unmodifiableList(removedPokemon);
+	}
+
+	/**
+	 * @return the incubators that changed in this update
+	 */
+	public List<EggIncubator> getUpdatedIncubators() {
+		return Collections.unmodifiableList(updatedIncubators);
+	}
+
+	/**
+	 * @return the new count of each item whose count changed
+	 */
+	public Map<ItemId, Integer> getItemCounts() {
+		return Collections.unmodifiableMap(itemCounts);
+	}
+
+	/**
+	 * @return the change in count of each item whose count changed, negative if items were used or removed
+	 */
+	public Map<ItemId, Integer> getItemChanges() {
+		return Collections.unmodifiableMap(itemChanges);
+	}
+
+	/**
+	 * Gets the change in count of the given item
+	 *
+	 * @param item the item
+	 * @return the change in count, 0 if it did not change
+	 */
+	public int getItemChange(ItemId item) {
+		Integer change = itemChanges.get(item);
+		return change != null ? change : 0;
+	}
+
+	/**
+	 * @return the new amount of candies of each family whose candies changed
+	 */
+	public Map<PokemonFamilyId, Integer> getCandyCounts() {
+		return Collections.unmodifiableMap(candyCounts);
+	}
+
+	/**
+	 * @return the change in candies of each family whose candies changed
+	 */
+	public Map<PokemonFamilyId, Integer> getCandyChanges() {
+		return Collections.unmodifiableMap(candyChanges);
+	}
+
+	/**
+	 * Gets the change in candies of the given family
+	 *
+	 * @param family the pokemon family
+	 * @return the change in candies, 0 if it did not change
+	 */
+	public int getCandyChange(PokemonFamilyId family) {
+		Integer change = candyChanges.get(family);
+		return change != null ? change : 0;
+	}
+}
@@ -0,0 +1,239 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pokegoapi.api.inventory;
+
+import POGOProtos.Inventory.InventoryDeltaOuterClass.InventoryDelta;
+import POGOProtos.Inventory.InventoryItemDataOuterClass.InventoryItemData;
+import POGOProtos.Inventory.InventoryItemOuterClass.InventoryItem;
+import POGOProtos.Networking.Responses.GetHoloInventoryResponseOuterClass.GetHoloInventoryResponse;
+import com.google.protobuf.Descriptors.FieldDescriptor;
+import com.pokegoapi.util.SystemTimeImpl;
+import com.pokegoapi.util.Time;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.File;
+import java.io.FileInputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+import java.nio.file.AtomicMoveNotSupportedException;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.LinkedHashMap;
+
+/**
+ * Persists the applied inventory of a single account and the timestamp of its last update, so the next login can
+ * restore it and only request the inventory delta since then. The file contains a short header followed by the
+ * length-delimited inventory items. Every save is written to a temporary file, synced to disk and atomically moved
+ * over the previous snapshot.
+ * Set it with {@link com.pokegoapi.api.PokemonGo#setInventorySnapshotStore(InventorySnapshotStore)} before login.
+ */
+public class InventorySnapshotStore {
+	private static final int MAGIC = 0x50495331;
+	private static final int FORMAT_VERSION = 1;
+
+	private final File file;
+	private final Time time;
+
+	private final LinkedHashMap<Object, InventoryItemData> items = new LinkedHashMap<>();
+	@Getter
+	private long timestamp;
+
+	private boolean dirty;
+	private long lastSave;
+
+	@Getter
+	@Setter
+	private long saveInterval = 60000;
+
+	/**
+	 * Opens the snapshot store in the given file, reading the snapshot if the file exists
+	 *
+	 * @param file the snapshot file of the account
+	 * @param time the time implementation used for the save interval
+	 * @throws IOException if the file exists but could not be read or is not a valid snapshot
+	 */
+	public InventorySnapshotStore(File file, Time time) throws IOException {
+		this.file = file;
+		this.time = time;
+		if (file.exists()) {
+			load();
+		}
+	}
+
+	/**
+	 * Opens the snapshot store in the given file, reading the snapshot if the file exists, using the system time
+	 * for the save interval
+	 *
+	 * @param file the snapshot file of the account
+	 * @throws IOException if the file exists but could not be read or is not a valid snapshot
+	 */
+	public InventorySnapshotStore(File file) throws IOException {
+		this(file, new SystemTimeImpl());
+	}
+
+	private void load() throws IOException {
+		try (DataInputStream in = new DataInputStream(new BufferedInputStream(new FileInputStream(file)))) {
+			if (in.readInt() != MAGIC || in.readInt() != FORMAT_VERSION) {
+				throw new IOException("Not an inventory snapshot: " + file);
+			}
+			long timestamp = in.readLong();
+			int count = in.readInt();
+			for (int i = 0; i < count; i++) {
+				InventoryItemData data = InventoryItemData.parseDelimitedFrom(in);
+				if (data == null) {
+					throw new IOException("Inventory snapshot is truncated: " + file);
+				}
+				put(data);
+			}
+			this.timestamp = timestamp;
+		} catch (IOException e) {
+			items.clear();
+			throw e;
+		}
+	}
+
+	/**
+	 * @return true if this store contains a snapshot to restore from
+	 */
+	public synchronized boolean hasSnapshot() {
+		return timestamp > 0 && items.size() > 0;
+	}
+
+	/**
+	 * Builds an inventory response containing the complete stored inventory
+	 *
+	 * @return the stored inventory
+	 */
+	public synchronized GetHoloInventoryResponse getSnapshot() {
+		InventoryDelta.Builder delta = InventoryDelta.newBuilder().setNewTimestampMs(timestamp);
+		for (InventoryItemData data : items.values()) {
+			delta.addInventoryItems(InventoryItem.newBuilder().setInventoryItemData(data));
+		}
+		return GetHoloInventoryResponse.newBuilder().setSuccess(true).setInventoryDelta(delta).build();
+	}
+
+	/**
+	 * Applies an inventory delta to this snapshot, saving it if the save interval has elapsed
+	 *
+	 * @param response the inventory response
+	 * @param timestamp the timestamp of the inventory after this delta
+	 * @throws IOException if the snapshot could not be saved
+	 */
+	public synchronized void record(GetHoloInventoryResponse response, long timestamp) throws IOException {
+		for (InventoryItem item : response.getInventoryDelta().getInventoryItemsList()) {
+			long deletedPokemon = item.getDeletedItem().getPokemonId();
+			if (deletedPokemon != 0) {
+				items.remove(deletedPokemon);
+			}
+			if (item.hasInventoryItemData()) {
+				put(item.getInventoryItemData());
+			}
+		}
+		this.timestamp = timestamp;
+		this.dirty = true;
+		if (time.currentTimeMillis() - lastSave >= saveInterval) {
+			save();
+		}
+	}
+
+	private void put(InventoryItemData data) {
+		Object key = getKey(data);
+		if (key != null) {
+			items.put(key, data);
+		}
+	}
+
+	/**
+	 * Gets the key that identifies the given inventory item. Pokemon, items, candies and pokedex entries are keyed
+	 * by their id, all other inventory data by the field it is stored in.
+	 *
+	 * @param data the inventory item
+	 * @return the key of this item, null if the item is empty
+	 */
+	private static Object getKey(InventoryItemData data) {
+		if (data.hasPokemonData()) {
+			return data.getPokemonData().getId();
+		} else if (data.hasItem()) {
+			return data.getItem().getItemId();
+		} else if (data.hasCandy()) {
+			return data.getCandy().getFamilyId();
+		} else if (data.hasPokedexEntry()) {
+			return data.getPokedexEntry().getPokemonId();
+		}
+		for (FieldDescriptor field : data.getAllFields().keySet()) {
+			return field.getNumber();
+		}
+		return null;
+	}
+
+	/**
+	 * Removes all stored items, so a complete inventory can be recorded without keeping items that are no longer
+	 * in it. The file is replaced on the next save.
+	 */
+	public synchronized void reset() {
+		items.clear();
+		timestamp = 0;
+		dirty = true;
+	}
+
+	/**
+	 * Removes the stored snapshot, the next login will download the complete inventory
+	 *
+	 * @throws IOException if the snapshot file could not be deleted
+	 */
+	public synchronized void clear() throws IOException {
+		items.clear();
+		timestamp = 0;
+		dirty = false;
+		Files.deleteIfExists(file.toPath());
+	}
+
+	/**
+	 * Writes this snapshot to its file if it changed since the last save
+	 *
+	 * @throws IOException if the snapshot could not be written
+	 */
+	public synchronized void save() throws IOException {
+		if (!dirty) {
+			return;
+		}
+		File temp = new File(file.getPath() + ".tmp");
+		FileOutputStream stream = new FileOutputStream(temp);
+		try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(stream))) {
+			out.writeInt(MAGIC);
+			out.writeInt(FORMAT_VERSION);
+			out.writeLong(timestamp);
+			out.writeInt(items.size());
+			for (InventoryItemData data : items.values()) {
+				data.writeDelimitedTo(out);
+			}
+			out.flush();
+			stream.getFD().sync();
+		}
+		try {
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.ATOMIC_MOVE);
+		} catch (AtomicMoveNotSupportedException e) {
+			Files.move(temp.toPath(), file.toPath(), StandardCopyOption.REPLACE_EXISTING);
+		}
+		dirty = false;
+		lastSave = time.currentTimeMillis();
+	}
+}
@@ -134,6 +134,7 @@ public class Item {
 		this.applied = true;
 		this.appliedTime = item.getAppliedMs();
 		this.appliedExpiration = item.getExpireMs();
+		itemBag.updateApplied(this, true);
 	}
 
 	/**
@@ -150,5 +151,6 @@ public class Item {
 	 */
 	public void removeApplied() {
 		applied = false;
+		itemBag.updateApplied(this, false);
 	}
 }
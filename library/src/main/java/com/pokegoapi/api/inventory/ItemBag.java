@@ -35,10 +35,10 @@ import com.pokegoapi.util.Log;
 
 import java.util.ArrayList;
 import java.util.Collection;
-import java.util.Collections;
-import java.util.HashMap;
 import java.util.List;
-import java.util.Map;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 
 /**
@@ -46,8 +46,13 @@ import java.util.Map;
  */
 public class ItemBag {
 	private final PokemonGo api;
-	private final Map<ItemId, Item> items = Collections.synchronizedMap(new HashMap<ItemId, Item>());
-	private final Object lock = new Object();
+	private static final ItemId[] ITEM_IDS = ItemId.values();
+
+	private final AtomicReferenceArray<Item> items = new AtomicReferenceArray<>(ITEM_IDS.length);
+	private final AtomicIntegerArray counts = new AtomicIntegerArray(ITEM_IDS.length);
+
+	private final AtomicLong incenseExpiration = new AtomicLong();
+	private final AtomicLong luckyEggExpiration = new AtomicLong();
 
 	public ItemBag(PokemonGo api) {
 		this.api = api;
@@ -57,9 +62,12 @@ public class ItemBag {
 	 * Resets this item bag and removes all items
 	 */
 	public void reset() {
-		synchronized (this.lock) {
-			items.clear();
+		for (int i = 0; i < ITEM_IDS.length; i++) {
+			items.set(i, null);
+			counts.set(i, 0);
 		}
+		incenseExpiration.set(0);
+		luckyEggExpiration.set(0);
 	}
 
 	/**
@@ -68,8 +76,19 @@ public class ItemBag {
 	 * @param item the item to add
 	 */
 	public void addItem(Item item) {
-		synchronized (this.lock) {
-			items.put(item.getItemId(), item);
+		int index = item.getItemId().ordinal();
+		items.set(index, item);
+		counts.set(index, item.getCount());
+	}
+
+	/**
+	 * Adds all given items to this bag
+	 *
+	 * @param items the items to add
+	 */
+	public void addItems(Collection<Item> items) {
+		for (Item item : items) {
+			addItem(item);
 		}
 	}
 
@@ -116,9 +135,9 @@ public class ItemBag {
 	 * @return The item removed, if any
 	 */
 	public Item removeItem(ItemId id) {
-		synchronized (this.lock) {
-			return items.remove(id);
-		}
+		int index = id.ordinal();
+		counts.set(index, 0);
+		return items.getAndSet(index, null);
 	}
 
 	/**
@@ -132,23 +151,36 @@ public class ItemBag {
 			throw new IllegalArgumentException("You cannot get item for UNRECOGNIZED");
 		}
 
-		synchronized (this.lock) {
-			// prevent returning null
-			if (!items.containsKey(type)) {
-				return new Item(api, ItemData.newBuilder().setCount(0).setItemId(type).build(), this);
-			}
-
-			return items.get(type);
+		Item item = items.get(type.ordinal());
+		// prevent returning null
+		if (item == null) {
+			return new Item(api, ItemData.newBuilder().setCount(0).setItemId(type).build(), this);
 		}
+		return item;
+	}
+
+	/**
+	 * Gets the amount of the given item in this bag, without creating an item object
+	 *
+	 * @param type the item type
+	 * @return the amount of this item
+	 */
+	public int getItemCount(ItemId type) {
+		return counts.get(type.ordinal());
 	}
 
 	/**
-	 * @return all the items in this bag
+	 * @return a snapshot of all the items in this bag
 	 */
 	public Collection<Item> getItems() {
-		synchronized (this.lock) {
-			return items.values();
+		List<Item> snapshot = new ArrayList<>();
+		for (int i = 0; i < ITEM_IDS.length; i++) {
+			Item item = items.get(i);
+			if (item != null) {
+				snapshot.add(item);
+			}
 		}
+		return snapshot;
 	}
 
 	/**
@@ -157,13 +189,11 @@ public class ItemBag {
 	 * @return used space
 	 */
 	public int getItemsCount() {
-		synchronized (this.lock) {
-			int ct = 0;
-			for (Item item : items.values()) {
-				ct += item.getCount();
-			}
-			return ct;
+		int ct = 0;
+		for (int i = 0; i < ITEM_IDS.length; i++) {
+			ct += counts.get(i);
 		}
+		return ct;
 	}
 
 	/**
@@ -274,30 +304,50 @@ public class ItemBag {
 	 * @return true if the current player has incense active
 	 */
 	public boolean isIncenseActive() {
-		synchronized (lock) {
-			for (Map.Entry<ItemId, Item> entry : items.entrySet()) {
-				Item item = entry.getValue();
-				if (item.isApplied() && item.isIncense()) {
-					return true;
-				}
-			}
-		}
-		return false;
+		return api.currentTimeMillis() <= incenseExpiration.get();
 	}
 
 	/**
 	 * @return true if the current player has a lucky egg active
 	 */
 	public boolean isLuckyEggActive() {
-		synchronized (lock) {
-			for (Map.Entry<ItemId, Item> entry : items.entrySet()) {
-				Item item = entry.getValue();
-				if (item.isApplied() && item.isLuckyEgg()) {
-					return true;
-				}
-			}
+		return api.currentTimeMillis() <= luckyEggExpiration.get();
+	}
+
+	/**
+	 * @return the time the active incense expires at, or 0 if no incense has been applied
+	 */
+	public long getIncenseExpiration() {
+		return incenseExpiration.get();
+	}
+
+	/**
+	 * @return the time the active lucky egg expires at, or 0 if no lucky egg has been applied
+	 */
+	public long getLuckyEggExpiration() {
+		return luckyEggExpiration.get();
+	}
+
+	/**
+	 * Updates the precomputed incense and lucky egg state after the applied state of the given item changed
+	 *
+	 * @param item the item that was applied or removed
+	 * @param applied true if the item was applied, false if it was removed
+	 */
+	void updateApplied(Item item, boolean applied) {
+		AtomicLong expiration;
+		if (item.isIncense()) {
+			expiration = incenseExpiration;
+		} else if (item.isLuckyEgg()) {
+			expiration = luckyEggExpiration;
+		} else {
+			return;
+		}
+		if (applied) {
+			expiration.set(item.getAppliedExpiration());
+		} else {
+			expiration.compareAndSet(item.getAppliedExpiration(), 0);
 		}
-		return false;
 	}
 
 	/**
@@ -16,7 +16,7 @@
 package com.pokegoapi.api.inventory;
 
 import POGOProtos.Enums.PokemonFamilyIdOuterClass.PokemonFamilyId;
-import POGOProtos.Enums.PokemonIdOuterClass;
+import POGOProtos.Enums.PokemonIdOuterClass.PokemonId;
 import POGOProtos.Inventory.CandyOuterClass.Candy;
 import POGOProtos.Inventory.InventoryItemDataOuterClass.InventoryItemData;
 import POGOProtos.Inventory.InventoryItemOuterClass.InventoryItem;
@@ -25,9 +25,7 @@ import POGOProtos.Networking.Requests.RequestTypeOuterClass.RequestType;
 import POGOProtos.Networking.Responses.GetHoloInventoryResponseOuterClass.GetHoloInventoryResponse;
 import POGOProtos.Networking.Responses.ReleasePokemonResponseOuterClass.ReleasePokemonResponse;
 import POGOProtos.Networking.Responses.ReleasePokemonResponseOuterClass.ReleasePokemonResponse.Result;
-import com.annimon.stream.Collectors;
-import com.annimon.stream.Stream;
-import com.annimon.stream.function.Predicate;
+import POGOProtos.Settings.Master.PokemonSettingsOuterClass.PokemonSettings;
 import com.google.protobuf.ByteString;
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.pokegoapi.api.PokemonGo;
@@ -36,18 +34,55 @@ import com.pokegoapi.exceptions.request.RequestFailedException;
 import com.pokegoapi.main.ServerRequest;
 import com.pokegoapi.main.ServerRequestEnvelope;
 import com.pokegoapi.main.ServerResponse;
+import com.pokegoapi.util.LongHashMap;
 import lombok.Getter;
 
+import java.util.AbstractCollection;
 import java.util.ArrayList;
 import java.util.Arrays;
+import java.util.Collection;
 import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.NoSuchElementException;
+import java.util.TreeSet;
 
 public class PokeBank {
-	@Getter
-	private final List<Pokemon> pokemons = Collections.synchronizedList(new ArrayList<Pokemon>());
+	private static final Comparator<Entry> CP_ORDER = new Comparator<Entry>() {
+		@Override
+		public int compare(Entry first, Entry second) {
+			if (first.cp != second.cp) {
+				return first.cp > second.cp ? -1 : 1;
+			}
+			return Long.compare(first.id, second.id);
+		}
+	};
+
+	private static final Comparator<Entry> IV_ORDER = new Comparator<Entry>() {
+		@Override
+		public int compare(Entry first, Entry second) {
+			if (first.ivRatio != second.ivRatio) {
+				return first.ivRatio > second.ivRatio ? -1 : 1;
+			}
+			return CP_ORDER.compare(first, second);
+		}
+	};
+
+	private final LongHashMap<Entry> pokemonById = new LongHashMap<>();
+	private Pokemon[] ordered = new Pokemon[64];
+	private int orderedEnd;
+	private List<Pokemon> pokemonView;
+	private final EnumMap<PokemonId, TreeSet<Entry>> bySpecies = new EnumMap<>(PokemonId.class);
+	private final EnumMap<PokemonFamilyId, TreeSet<Entry>> byFamily = new EnumMap<>(PokemonFamilyId.class);
+	private final TreeSet<Entry> byCp = new TreeSet<>(CP_ORDER);
+	private final TreeSet<Entry> byIv = new TreeSet<>(IV_ORDER);
+	private final EntryView cpView = new EntryView(byCp);
+	private final EntryView ivView = new EntryView(byIv);
+	private long version;
 	@Getter
 	private final Object lock = new Object();
 	@Getter
@@ -62,7 +97,38 @@ public class PokeBank {
 	 */
 	public void reset() {
 		synchronized (this.lock) {
-			pokemons.clear();
+			pokemonById.clear();
+			bySpecies.clear();
+			byFamily.clear();
+			byCp.clear();
+			byIv.clear();
+			version++;
+			Arrays.fill(ordered, 0, orderedEnd, null);
+			orderedEnd = 0;
+			pokemonView = null;
+		}
+	}
+
+	/**
+	 * Gets all pokemon in the order they were added. The returned list is a read-only snapshot,
+	 * which is shared until the pokebank changes.
+	 *
+	 * @return all pokemon
+	 */
+	public List<Pokemon> getPokemons() {
+		synchronized (this.lock) {
+			List<Pokemon> view = pokemonView;
+			if (view == null) {
+				List<Pokemon> pokemons = new ArrayList<>(pokemonById.size());
+				for (int i = 0; i < orderedEnd; i++) {
+					if (ordered[i] != null) {
+						pokemons.add(ordered[i]);
+					}
+				}
+				view = Collections.unmodifiableList(pokemons);
+				pokemonView = view;
+			}
+			return view;
 		}
 	}
 
@@ -73,32 +139,224 @@ public class PokeBank {
 	 */
 	public void addPokemon(final Pokemon pokemon) {
 		synchronized (this.lock) {
-			List<Pokemon> alreadyAdded = Stream.of(pokemons).filter(new Predicate<Pokemon>() {
-				@Override
-				public boolean test(Pokemon testPokemon) {
-					return pokemon.getId() == testPokemon.getId();
+			if (pokemonById.containsKey(pokemon.getId())) {
+				return;
+			}
+			if (orderedEnd == ordered.length) {
+				compact();
+				if (orderedEnd > ordered.length / 2) {
+					ordered = Arrays.copyOf(ordered, ordered.length * 2);
+				}
+			}
+			Entry entry = new Entry(pokemon, orderedEnd);
+			pokemonById.put(pokemon.getId(), entry);
+			ordered[orderedEnd++] = pokemon;
+			index(entry);
+			pokemonView = null;
+		}
+	}
+
+	/**
+	 * Applies an inventory delta under a single lock acquisition: removes the given pokemon ids, then adds the
+	 * given pokemon. A pokemon with the id of a pokemon in the pokebank replaces it in its position and indexes.
+	 *
+	 * @param removed the ids of the pokemon to remove
+	 * @param added the pokemon to add or update
+	 */
+	public void applyDelta(Collection<Long> removed, Collection<Pokemon> added) {
+		synchronized (this.lock) {
+			for (long id : removed) {
+				removePokemon(id);
+			}
+			for (Pokemon pokemon : added) {
+				Entry previous = pokemonById.get(pokemon.getId());
+				if (previous == null) {
+					addPokemon(pokemon);
+				} else if (previous.pokemon != pokemon) {
+					unindex(previous);
+					Entry entry = new Entry(pokemon, previous.position);
+					pokemonById.put(pokemon.getId(), entry);
+					ordered[entry.position] = pokemon;
+					index(entry);
+					pokemonView = null;
 				}
-			}).collect(Collectors.<Pokemon>toList());
-			if (alreadyAdded.size() < 1) {
-				pokemons.add(pokemon);
 			}
 		}
 	}
 
+	/**
+	 * Removes the gaps left by removed pokemon from the insertion order
+	 */
+	private void compact() {
+		int write = 0;
+		for (int read = 0; read < orderedEnd; read++) {
+			Pokemon pokemon = ordered[read];
+			if (pokemon != null) {
+				ordered[write] = pokemon;
+				pokemonById.get(pokemon.getId()).position = write;
+				write++;
+			}
+		}
+		Arrays.fill(ordered, write, orderedEnd, null);
+		orderedEnd = write;
+	}
+
+	/**
+	 * Re-indexes a pokemon after its details changed, for example after it was powered up
+	 *
+	 * @param pokemon the changed pokemon
+	 */
+	public void updatePokemon(Pokemon pokemon) {
+		synchronized (this.lock) {
+			Entry entry = pokemonById.get(pokemon.getId());
+			if (entry != null && entry.pokemon == pokemon) {
+				unindex(entry);
+				entry.refresh();
+				index(entry);
+			}
+		}
+	}
+
+	private void index(Entry entry) {
+		getOrCreate(bySpecies, entry.pokemonId).add(entry);
+		getOrCreate(byFamily, entry.family).add(entry);
+		byCp.add(entry);
+		byIv.add(entry);
+		version++;
+	}
+
+	private void unindex(Entry entry) {
+		TreeSet<Entry> species = bySpecies.get(entry.pokemonId);
+		if (species != null) {
+			species.remove(entry);
+		}
+		TreeSet<Entry> family = byFamily.get(entry.family);
+		if (family != null) {
+			family.remove(entry);
+		}
+		byCp.remove(entry);
+		byIv.remove(entry);
+		version++;
+	}
+
+	private static <K extends Enum<K>> TreeSet<Entry> getOrCreate(EnumMap<K, TreeSet<Entry>> index, K key) {
+		TreeSet<Entry> entries = index.get(key);
+		if (entries == null) {
+			entries = new TreeSet<>(CP_ORDER);
+			index.put(key, entries);
+		}
+		return entries;
+	}
+
 	/**
 	 * Gets pokemon by pokemon id.
 	 *
 	 * @param id the id
-	 * @return the pokemon by pokemon id
+	 * @return the pokemon by pokemon id, highest CP first
 	 */
-	public List<Pokemon> getPokemonByPokemonId(final PokemonIdOuterClass.PokemonId id) {
+	public List<Pokemon> getPokemonByPokemonId(final PokemonId id) {
 		synchronized (this.lock) {
-			return Stream.of(pokemons).filter(new Predicate<Pokemon>() {
-				@Override
-				public boolean test(Pokemon pokemon) {
-					return pokemon.getPokemonId().equals(id);
+			return new ArrayList<>(getSpecies(id));
+		}
+	}
+
+	/**
+	 * Gets a read-only view of all pokemon of the given species, highest CP first.
+	 * The view reflects later changes; each iteration walks a snapshot taken when it starts.
+	 *
+	 * @param id the species
+	 * @return the pokemon of the given species
+	 */
+	public Collection<Pokemon> getSpecies(PokemonId id) {
+		synchronized (this.lock) {
+			return new EntryView(getOrCreate(bySpecies, id));
+		}
+	}
+
+	/**
+	 * Gets a read-only view of all pokemon of the given family, highest CP first.
+	 * The view reflects later changes; each iteration walks a snapshot taken when it starts.
+	 *
+	 * @param family the family
+	 * @return the pokemon of the given family
+	 */
+	public Collection<Pokemon> getFamily(PokemonFamilyId family) {
+		synchronized (this.lock) {
+			return new EntryView(getOrCreate(byFamily, family));
+		}
+	}
+
+	/**
+	 * Gets a read-only view of all pokemon, highest CP first.
+	 * The view reflects later changes; each iteration walks a snapshot taken when it starts.
+	 *
+	 * @return all pokemon ordered by CP
+	 */
+	public Collection<Pokemon> getPokemonByCp() {
+		return cpView;
+	}
+
+	/**
+	 * Gets a read-only view of all pokemon, highest IV first.
+	 * The view reflects later changes; each iteration walks a snapshot taken when it starts.
+	 *
+	 * @return all pokemon ordered by IV
+	 */
+	public Collection<Pokemon> getPokemonByIv() {
+		return ivView;
+	}
+
+	/**
+	 * Gets the pokemon with the highest CP
+	 *
+	 * @param count the maximum amount of pokemon to return
+	 * @return up to count pokemon, highest CP first
+	 */
+	public List<Pokemon> getTopByCp(int count) {
+		synchronized (this.lock) {
+			return getTop(byCp, count);
+		}
+	}
+
+	/**
+	 * Gets the pokemon with the highest IV
+	 *
+	 * @param count the maximum amount of pokemon to return
+	 * @return up to count pokemon, highest IV first
+	 */
+	public List<Pokemon> getTopByIv(int count) {
+		synchronized (this.lock) {
+			return getTop(byIv, count);
+		}
+	}
+
+	private static List<Pokemon> getTop(TreeSet<Entry> entries, int count) {
+		List<Pokemon> top = new ArrayList<>(Math.max(0, Math.min(count, entries.size())));
+		Iterator<Entry> iterator = entries.iterator();
+		while (top.size() < count && iterator.hasNext()) {
+			top.add(iterator.next().pokemon);
+		}
+		return top;
+	}
+
+	/**
+	 * Gets all pokemon beyond the best of each species by CP, for example to pick pokemon to transfer
+	 *
+	 * @param keep the amount of pokemon to keep for each species
+	 * @return the pokemon beyond the best of each species
+	 */
+	public List<Pokemon> getDuplicates(int keep) {
+		synchronized (this.lock) {
+			List<Pokemon> duplicates = new ArrayList<>();
+			for (TreeSet<Entry> species : bySpecies.values()) {
+				int index = 0;
+				for (Entry entry : species) {
+					if (index++ >= keep) {
+						duplicates.add(entry.pokemon);
+					}
 				}
-			}).collect(Collectors.<Pokemon>toList());
+			}
+			return duplicates;
 		}
 	}
 
@@ -109,16 +367,12 @@ public class PokeBank {
 	 */
 	public void removePokemon(final long pokemonID) {
 		synchronized (this.lock) {
-			List<Pokemon> previous = new ArrayList<>();
-			previous.addAll(pokemons);
-
-			pokemons.clear();
-			pokemons.addAll(Stream.of(previous).filter(new Predicate<Pokemon>() {
-				@Override
-				public boolean test(Pokemon pokemon) {
-					return pokemon.getId() != pokemonID;
-				}
-			}).collect(Collectors.<Pokemon>toList()));
+			Entry entry = pokemonById.remove(pokemonID);
+			if (entry != null) {
+				ordered[entry.position] = null;
+				unindex(entry);
+				pokemonView = null;
+			}
 		}
 	}
 
@@ -139,13 +393,9 @@ public class PokeBank {
 	 */
 	public Pokemon getPokemonById(final Long id) {
 		synchronized (this.lock) {
-			for (Pokemon pokemon : pokemons) {
-				if (pokemon.getId() == id) {
-					return pokemon;
-				}
-			}
+			Entry entry = pokemonById.get(id);
+			return entry != null ? entry.pokemon : null;
 		}
-		return null;
 	}
 
 	/**
@@ -172,11 +422,8 @@ public class PokeBank {
 			ReleasePokemonResponse releaseResponse = ReleasePokemonResponse.parseFrom(releaseRequest.getData());
 			Map<PokemonFamilyId, Integer> candyCount = new HashMap<>();
 			if (releaseResponse.getResult() == Result.SUCCESS && inventoryResponse.getSuccess()) {
-				synchronized (this.lock) {
-					this.pokemons.removeAll(Arrays.asList(releasePokemon));
-				}
 				for (Pokemon pokemon : releasePokemon) {
-					api.getInventories().getPokebank().removePokemon(pokemon);
+					removePokemon(pokemon);
 				}
 				List<InventoryItem> items = inventoryResponse.getInventoryDelta().getInventoryItemsList();
 				for (InventoryItem item : items) {
@@ -205,7 +452,11 @@ public class PokeBank {
 	 * @return the amount of pokemon in the PokeBank
 	 */
 	public int size() {
-		return pokemons.size() + api.getInventories().getHatchery().getEggs().size();
+		int size;
+		synchronized (this.lock) {
+			size = pokemonById.size();
+		}
+		return size + api.getInventories().getHatchery().getEggs().size();
 	}
 
 	/**
@@ -214,4 +465,91 @@ public class PokeBank {
 	public int getMaxStorage() {
 		return api.getPlayerProfile().getPlayerData().getMaxPokemonStorage();
 	}
+
+	/**
+	 * A pokemon, its position in the insertion order and the values it is indexed by
+	 */
+	private static final class Entry {
+		private final Pokemon pokemon;
+		private final long id;
+		private int position;
+		private PokemonId pokemonId;
+		private PokemonFamilyId family;
+		private int cp;
+		private double ivRatio;
+
+		private Entry(Pokemon pokemon, int position) {
+			this.pokemon = pokemon;
+			this.id = pokemon.getId();
+			this.position = position;
+			refresh();
+		}
+
+		private void refresh() {
+			pokemonId = pokemon.getPokemonId();
+			PokemonSettings settings = pokemon.getSettings();
+			family = settings != null ? settings.getFamilyId() : PokemonFamilyId.FAMILY_UNSET;
+			cp = pokemon.getCp();
+			ivRatio = pokemon.getIvRatio();
+		}
+	}
+
+	/**
+	 * Read-only view of the pokemon in a set of entries. Iterators walk a snapshot of the entries, which is shared
+	 * until the pokebank changes.
+	 */
+	private final class EntryView extends AbstractCollection<Pokemon> {
+		private final TreeSet<Entry> entries;
+		private Pokemon[] snapshot;
+		private long snapshotVersion;
+
+		private EntryView(TreeSet<Entry> entries) {
+			this.entries = entries;
+		}
+
+		@Override
+		public Iterator<Pokemon> iterator() {
+			final Pokemon[] pokemon;
+			synchronized (lock) {
+				if (snapshot == null || snapshotVersion != version) {
+					Pokemon[] copy = new Pokemon[entries.size()];
+					int index = 0;
+					for (Entry entry : entries) {
+						copy[index++] = entry.pokemon;
+					}
+					snapshot = copy;
+					snapshotVersion = version;
+				}
+				pokemon = snapshot;
+			}
+			return new Iterator<Pokemon>() {
+				private int index;
+
+				@Override
+				public boolean hasNext() {
+					return index < pokemon.length;
+				}
+
+				@Override
+				public Pokemon next() {
+					if (index >= pokemon.length) {
+						throw new NoSuchElementException();
+					}
+					return pokemon[index++];
+				}
+
+				@Override
+				public void remove() {
+					throw new UnsupportedOperationException("PokeBank views are read-only");
+				}
+			};
+		}
+
+		@Override
+		public int size() {
+			synchronized (lock) {
+				return entries.size();
+			}
+		}
+	}
 }
@@ -18,21 +18,20 @@ package com.pokegoapi.api.inventory;
 import POGOProtos.Data.PokedexEntryOuterClass.PokedexEntry;
 import POGOProtos.Enums.PokemonIdOuterClass.PokemonId;
 
-import java.util.Collections;
-import java.util.EnumMap;
-import java.util.Map;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 public class Pokedex {
-	private final Map<PokemonId, PokedexEntry> pokedexMap =
-			Collections.synchronizedMap(new EnumMap<PokemonId, PokedexEntry>(PokemonId.class));
-	private final Object lock = new Object();
+	private static final int SIZE = PokemonId.values().length;
+
+	private final AtomicReferenceArray<PokedexEntry> entries = new AtomicReferenceArray<>(SIZE);
 
 	/**
 	 * Resets the pokedex and removes all entries
 	 */
 	public void reset() {
-		synchronized (this.lock) {
-			pokedexMap.clear();
+		for (int i = 0; i < SIZE; i++) {
+			entries.set(i, null);
 		}
 	}
 
@@ -43,8 +42,19 @@ public class Pokedex {
 	 */
 	public void add(PokedexEntry entry) {
 		PokemonId id = PokemonId.forNumber(entry.getPokemonId().getNumber());
-		synchronized (this.lock) {
-			pokedexMap.put(id, entry);
+		if (id != null) {
+			entries.set(id.ordinal(), entry);
+		}
+	}
+
+	/**
+	 * Add/Update all given PokedexEntries.
+	 *
+	 * @param entries The entries to add or update
+	 */
+	public void addAll(Collection<PokedexEntry> entries) {
+		for (PokedexEntry entry : entries) {
+			add(entry);
 		}
 	}
 
@@ -55,8 +65,28 @@ public class Pokedex {
 	 * @return Entry if in pokedex or null if it doesn't
 	 */
 	public PokedexEntry getPokedexEntry(PokemonId pokemonId) {
-		synchronized (this.lock) {
-			return pokedexMap.get(pokemonId);
-		}
+		return entries.get(pokemonId.ordinal());
+	}
+
+	/**
+	 * Gets the amount of times the given pokemon has been captured
+	 *
+	 * @param pokemonId the ID of the pokemon
+	 * @return the amount of captures, 0 if not in the pokedex
+	 */
+	public int getTimesCaptured(PokemonId pokemonId) {
+		PokedexEntry entry = entries.get(pokemonId.ordinal());
+		return entry != null ? entry.getTimesCaptured() : 0;
+	}
+
+	/**
+	 * Gets the amount of times the given pokemon has been encountered
+	 *
+	 * @param pokemonId the ID of the pokemon
+	 * @return the amount of encounters, 0 if not in the pokedex
+	 */
+	public int getTimesEncountered(PokemonId pokemonId) {
+		PokedexEntry entry = entries.get(pokemonId.ordinal());
+		return entry != null ? entry.getTimesEncountered() : 0;
 	}
 }
@@ -0,0 +1,91 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pokegoapi.api.inventory.analytics;
+
+import com.pokegoapi.api.PokemonGo;
+import com.pokegoapi.api.inventory.BulkActionPlan;
+import com.pokegoapi.api.inventory.PokeBank;
+import com.pokegoapi.api.pokemon.Pokemon;
+import lombok.Getter;
+
+/**
+ * The pokemon to transfer and evolve for a single account, as decided by a {@link FleetAnalyzer}
+ */
+public class AccountPlan {
+	@Getter
+	private final InventoryColumns inventory;
+	private final long[] transfers;
+	private final long[] evolutions;
+
+	AccountPlan(InventoryColumns inventory, long[] transfers, long[] evolutions) {
+		this.inventory = inventory;
+		this.transfers = transfers;
+		this.evolutions = evolutions;
+	}
+
+	/**
+	 * @return the name of the account this plan is for
+	 */
+	public String getAccount() {
+		return inventory.getAccount();
+	}
+
+	/**
+	 * @return a copy of the ids of the pokemon to transfer
+	 */
+	public long[] getTransfers() {
+		return transfers.clone();
+	}
+
+	/**
+	 * @return a copy of the ids of the pokemon to evolve
+	 */
+	public long[] getEvolutions() {
+		return evolutions.clone();
+	}
+
+	/**
+	 * @return true if this plan has no actions
+	 */
+	public boolean isEmpty() {
+		return transfers.length == 0 && evolutions.length == 0;
+	}
+
+	/**
+	 * Creates an action plan to execute this plan on the given account. Pokemon that are no longer in the inventory
+	 * of the account are skipped.
+	 *
+	 * @param api the api of the account this plan was created for
+	 * @return the action plan
+	 */
+	public BulkActionPlan toBulkActionPlan(PokemonGo api) {
+		PokeBank pokebank = api.getInventories().getPokebank();
+		BulkActionPlan plan = new BulkActionPlan(api);
+		for (long id : transfers) {
+			Pokemon pokemon = pokebank.getPokemonById(id);
+			if (pokemon != null) {
+				plan.release(pokemon);
+			}
+		}
+		for (long id : evolutions) {
+			Pokemon pokemon = pokebank.getPokemonById(id);
+			if (pokemon != null) {
+				plan.evolve(pokemon);
+			}
+		}
+		return plan;
+	}
+}
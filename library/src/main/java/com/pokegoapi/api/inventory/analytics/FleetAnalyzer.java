@@ -0,0 +1,205 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pokegoapi.api.inventory.analytics;
+
+import com.pokegoapi.api.inventory.analytics.InventoryPolicy.Decision;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Evaluates inventory policies over the exported inventories of many accounts in parallel. The rows of all
+ * accounts are split into chunks which are evaluated on a fork/join pool, after which the decisions of each account
+ * are collected into an {@link AccountPlan}.
+ * <p>
+ * For every pokemon, the policies are asked in order and the first decision other than {@link Decision#NONE} is
+ * used. Protected pokemon (favorite, deployed or buddy) are never transferred, and evolutions are only planned
+ * while the account has enough candies of the family, in row order.
+ */
+public class FleetAnalyzer {
+	private static final int CHUNK_SIZE = 4096;
+	private static final Decision[] DECISIONS = Decision.values();
+
+	private final ForkJoinPool pool;
+	private final boolean ownsPool;
+
+	/**
+	 * Creates an analyzer with its own pool using all available processors. Call {@link #shutdown()} when the
+	 * analyzer is no longer used.
+	 */
+	public FleetAnalyzer() {
+		this(new ForkJoinPool(), true);
+	}
+
+	/**
+	 * Creates an analyzer running on the given pool, which is not shut down by {@link #shutdown()}
+	 *
+	 * @param pool the pool to run on
+	 */
+	public FleetAnalyzer(ForkJoinPool pool) {
+		this(pool, false);
+	}
+
+	private FleetAnalyzer(ForkJoinPool pool, boolean ownsPool) {
+		this.pool = pool;
+		this.ownsPool = ownsPool;
+	}
+
+	/**
+	 * Shuts down the pool created by this analyzer, after which it can no longer evaluate. Does nothing if the
+	 * analyzer runs on a pool passed to its constructor.
+	 */
+	public void shutdown() {
+		if (ownsPool) {
+			pool.shutdown();
+		}
+	}
+
+	/**
+	 * Evaluates the given policies for every pokemon of every account
+	 *
+	 * @param fleet the exported inventories of all accounts
+	 * @param policies the policies to evaluate, in order of priority
+	 * @return the plan of each account, in the same order as the given fleet
+	 */
+	public List<AccountPlan> evaluate(List<InventoryColumns> fleet, List<InventoryPolicy> policies) {
+		InventoryColumns[] accounts = fleet.toArray(new InventoryColumns[fleet.size()]);
+		InventoryPolicy[] rules = policies.toArray(new InventoryPolicy[policies.size()]);
+
+		byte[][] decisions = new byte[accounts.length][];
+		int chunks = 0;
+		for (int i = 0; i < accounts.length; i++) {
+			decisions[i] = new byte[accounts[i].size()];
+			chunks += (accounts[i].size() + CHUNK_SIZE - 1) / CHUNK_SIZE;
+		}
+		int[] chunkAccounts = new int[chunks];
+		int[] chunkStarts = new int[chunks];
+		int chunk = 0;
+		for (int i = 0; i < accounts.length; i++) {
+			for (int start = 0; start < accounts[i].size(); start += CHUNK_SIZE) {
+				chunkAccounts[chunk] = i;
+				chunkStarts[chunk] = start;
+				chunk++;
+			}
+		}
+
+		pool.invoke(new EvaluateTask(accounts, rules, decisions, chunkAccounts, chunkStarts, 0, chunks));
+
+		List<AccountPlan> plans = new ArrayList<>(accounts.length);
+		for (int i = 0; i < accounts.length; i++) {
+			plans.add(collect(accounts[i], decisions[i]));
+		}
+		return plans;
+	}
+
+	/**
+	 * Collects the decisions of an account into a plan, only planning evolutions the account has candies for
+	 *
+	 * @param inventory the inventory of the account
+	 * @param decisions the decision of each row
+	 * @return the plan of this account
+	 */
+	private AccountPlan collect(InventoryColumns inventory, byte[] decisions) {
+		long[] transfers = new long[16];
+		long[] evolutions = new long[16];
+		int transferCount = 0;
+		int evolveCount = 0;
+		int[] candies = null;
+		for (int row = 0; row < decisions.length; row++) {
+			Decision decision = DECISIONS[decisions[row]];
+			if (decision == Decision.TRANSFER) {
+				if (transferCount == transfers.length) {
+					transfers = Arrays.copyOf(transfers, transferCount * 2);
+				}
+				transfers[transferCount++] = inventory.getId(row);
+			} else if (decision == Decision.EVOLVE) {
+				if (candies == null) {
+					candies = inventory.getCandies();
+				}
+				int family = inventory.getFamilyOrdinal(row);
+				int cost = inventory.getCandiesToEvolve(row);
+				if (cost > 0 && candies[family] >= cost) {
+					candies[family] -= cost;
+					if (evolveCount == evolutions.length) {
+						evolutions = Arrays.copyOf(evolutions, evolveCount * 2);
+					}
+					evolutions[evolveCount++] = inventory.getId(row);
+				}
+			}
+		}
+		return new AccountPlan(inventory, Arrays.copyOf(transfers, transferCount),
+				Arrays.copyOf(evolutions, evolveCount));
+	}
+
+	/**
+	 * Evaluates a range of chunks, splitting it until a single chunk remains
+	 */
+	private static final class EvaluateTask extends RecursiveAction {
+		private final InventoryColumns[] accounts;
+		private final InventoryPolicy[] policies;
+		private final byte[][] decisions;
+		private final int[] chunkAccounts;
+		private final int[] chunkStarts;
+		private final int from;
+		private final int to;
+
+		private EvaluateTask(InventoryColumns[] accounts, InventoryPolicy[] policies, byte[][] decisions,
+				int[] chunkAccounts, int[] chunkStarts, int from, int to) {
+			this.accounts = accounts;
+			this.policies = policies;
+			this.decisions = decisions;
+			this.chunkAccounts = chunkAccounts;
+			this.chunkStarts = chunkStarts;
+			this.from = from;
+			this.to = to;
+		}
+
+		@Override
+		protected void compute() {
+			if (to - from > 1) {
+				int middle = (from + to) >>> 1;
+				invokeAll(new EvaluateTask(accounts, policies, decisions, chunkAccounts, chunkStarts, from, middle),
+						new EvaluateTask(accounts, policies, decisions, chunkAccounts, chunkStarts, middle, to));
+				return;
+			}
+			if (to == from) {
+				return;
+			}
+			int account = chunkAccounts[from];
+			InventoryColumns inventory = accounts[account];
+			byte[] result = decisions[account];
+			int start = chunkStarts[from];
+			int end = Math.min(inventory.size(), start + CHUNK_SIZE);
+			for (int row = start; row < end; row++) {
+				Decision decision = Decision.KEEP;
+				for (InventoryPolicy policy : policies) {
+					Decision current = policy.evaluate(inventory, row);
+					if (current != null && current != Decision.NONE) {
+						decision = current;
+						break;
+					}
+				}
+				if (decision == Decision.TRANSFER && inventory.isProtected(row)) {
+					decision = Decision.KEEP;
+				}
+				result[row] = (byte) decision.ordinal();
+			}
+		}
+	}
+}
@@ -0,0 +1,378 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pokegoapi.api.inventory.analytics;
+
+import POGOProtos.Data.PlayerDataOuterClass.PlayerData;
+import POGOProtos.Enums.PokemonFamilyIdOuterClass.PokemonFamilyId;
+import POGOProtos.Enums.PokemonIdOuterClass.PokemonId;
+import POGOProtos.Settings.Master.Pokemon.EvolutionBranchOuterClass.EvolutionBranch;
+import POGOProtos.Settings.Master.PokemonSettingsOuterClass.PokemonSettings;
+import com.pokegoapi.api.PokemonGo;
+import com.pokegoapi.api.inventory.CandyJar;
+import com.pokegoapi.api.pokemon.Evolution;
+import com.pokegoapi.api.pokemon.Pokemon;
+import lombok.Getter;
+
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Read-only columnar export of the pokemon inventory of a single account. Every pokemon is a row, and every
+ * attribute is stored in a primitive array, so policies can be evaluated over a large fleet without touching the
+ * pokemon objects, the item templates or {@link com.pokegoapi.api.pokemon.PokemonCpUtils}.
+ * Species and families are stored as enum ordinals.
+ */
+public final class InventoryColumns {
+	public static final int FLAG_FAVORITE = 1;
+	public static final int FLAG_DEPLOYED = 1 << 1;
+	public static final int FLAG_BUDDY = 1 << 2;
+
+	/**
+	 * Flags of pokemon that must never be transferred
+	 */
+	public static final int PROTECTED = FLAG_FAVORITE | FLAG_DEPLOYED | FLAG_BUDDY;
+
+	private static final PokemonId[] SPECIES = PokemonId.values();
+	private static final PokemonFamilyId[] FAMILIES = PokemonFamilyId.values();
+
+	@Getter
+	private final String account;
+	private final int size;
+	private final long[] ids;
+	private final short[] species;
+	private final short[] families;
+	private final int[] cp;
+	private final byte[] attack;
+	private final byte[] defense;
+	private final byte[] stamina;
+	private final float[] level;
+	private final int[] candiesToEvolve;
+	private final byte[] flags;
+	private final int[] candies;
+
+	private InventoryColumns(Builder builder) {
+		this.account = builder.account;
+		this.size = builder.size;
+		this.ids = Arrays.copyOf(builder.ids, size);
+		this.species = Arrays.copyOf(builder.species, size);
+		this.families = Arrays.copyOf(builder.families, size);
+		this.cp = Arrays.copyOf(builder.cp, size);
+		this.attack = Arrays.copyOf(builder.attack, size);
+		this.defense = Arrays.copyOf(builder.defense, size);
+		this.stamina = Arrays.copyOf(builder.stamina, size);
+		this.level = Arrays.copyOf(builder.level, size);
+		this.candiesToEvolve = Arrays.copyOf(builder.candiesToEvolve, size);
+		this.flags = Arrays.copyOf(builder.flags, size);
+		this.candies = builder.candies.clone();
+	}
+
+	/**
+	 * Exports the current pokemon inventory of the given account
+	 *
+	 * @param api the api of the account
+	 * @return the exported inventory
+	 */
+	public static InventoryColumns export(PokemonGo api) {
+		List<Pokemon> pokemons = api.getInventories().getPokebank().getPokemons();
+		PlayerData playerData = api.getPlayerProfile().getPlayerData();
+		// The buddy may not be in the pokebank, so only its id is read
+		long buddy = playerData.hasBuddyPokemon() ? playerData.getBuddyPokemon().getId() : 0;
+
+		Builder builder = new Builder(playerData.getUsername(), pokemons.size());
+		int[] evolveCosts = new int[SPECIES.length];
+		Arrays.fill(evolveCosts, -1);
+		for (Pokemon pokemon : pokemons) {
+			PokemonId id = pokemon.getPokemonId();
+			if (id == PokemonId.UNRECOGNIZED) {
+				continue;
+			}
+			PokemonSettings settings = pokemon.getSettings();
+			PokemonFamilyId family = settings != null ? settings.getFamilyId() : PokemonFamilyId.FAMILY_UNSET;
+			if (evolveCosts[id.ordinal()] < 0) {
+				evolveCosts[id.ordinal()] = getEvolveCost(api, id);
+			}
+			int flags = 0;
+			if (pokemon.isFavorite()) {
+				flags |= FLAG_FAVORITE;
+			}
+			if (pokemon.isDeployed()) {
+				flags |= FLAG_DEPLOYED;
+			}
+			if (pokemon.getId() == buddy) {
+				flags |= FLAG_BUDDY;
+			}
+			builder.add(pokemon.getId(), id, family, pokemon.getCp(), pokemon.getIndividualAttack(),
+					pokemon.getIndividualDefense(), pokemon.getIndividualStamina(), pokemon.getLevel(),
+					evolveCosts[id.ordinal()], flags);
+		}
+
+		CandyJar candyJar = api.getInventories().getCandyjar();
+		for (PokemonFamilyId family : FAMILIES) {
+			builder.setCandies(family, candyJar.getCandies(family));
+		}
+		return builder.build();
+	}
+
+	private static int getEvolveCost(PokemonGo api, PokemonId id) {
+		Evolution evolution = api.getItemTemplates().getEvolutions().getEvolution(id);
+		if (evolution != null) {
+			List<EvolutionBranch> branches = evolution.getEvolutionBranch();
+			if (branches != null && branches.size() > 0) {
+				return branches.get(0).getCandyCost();
+			}
+		}
+		return 0;
+	}
+
+	/**
+	 * @return the amount of pokemon in this export
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @param row the row
+	 * @return the id of the pokemon in the given row
+	 */
+	public long getId(int row) {
+		return ids[row];
+	}
+
+	/**
+	 * @param row the row
+	 * @return the species ordinal of the pokemon in the given row
+	 */
+	public int getSpeciesOrdinal(int row) {
+		return species[row];
+	}
+
+	/**
+	 * @param row the row
+	 * @return the species of the pokemon in the given row
+	 */
+	public PokemonId getSpecies(int row) {
+		return SPECIES[species[row]];
+	}
+
+	/**
+	 * @param row the row
+	 * @return the family ordinal of the pokemon in the given row
+	 */
+	public int getFamilyOrdinal(int row) {
+		return families[row];
+	}
+
+	/**
+	 * @param row the row
+	 * @return the family of the pokemon in the given row
+	 */
+	public PokemonFamilyId getFamily(int row) {
+		return FAMILIES[families[row]];
+	}
+
+	/**
+	 * @param row the row
+	 * @return the CP of the pokemon in the given row
+	 */
+	public int getCp(int row) {
+		return cp[row];
+	}
+
+	/**
+	 * @param row the row
+	 * @return the individual attack of the pokemon in the given row
+	 */
+	public int getAttack(int row) {
+		return attack[row];
+	}
+
+	/**
+	 * @param row the row
+	 * @return the individual defense of the pokemon in the given row
+	 */
+	public int getDefense(int row) {
+		return defense[row];
+	}
+
+	/**
+	 * @param row the row
+	 * @return the individual stamina of the pokemon in the given row
+	 */
+	public int getStamina(int row) {
+		return stamina[row];
+	}
+
+	/**
+	 * @param row the row
+	 * @return the sum of the individual values of the pokemon in the given row, between 0 and 45
+	 */
+	public int getIvSum(int row) {
+		return attack[row] + defense[row] + stamina[row];
+	}
+
+	/**
+	 * @param row the row
+	 * @return the level of the pokemon in the given row
+	 */
+	public float getLevel(int row) {
+		return level[row];
+	}
+
+	/**
+	 * @param row the row
+	 * @return the candies needed to evolve the pokemon in the given row, 0 if it cannot evolve
+	 */
+	public int getCandiesToEvolve(int row) {
+		return candiesToEvolve[row];
+	}
+
+	/**
+	 * @param row the row
+	 * @return the flags of the pokemon in the given row
+	 */
+	public int getFlags(int row) {
+		return flags[row];
+	}
+
+	/**
+	 * @param row the row
+	 * @return true if the pokemon in the given row is favorite, deployed or the buddy
+	 */
+	public boolean isProtected(int row) {
+		return (flags[row] & PROTECTED) != 0;
+	}
+
+	/**
+	 * @param familyOrdinal the family ordinal
+	 * @return the amount of candies of the given family
+	 */
+	public int getCandies(int familyOrdinal) {
+		return candies[familyOrdinal];
+	}
+
+	/**
+	 * @param family the family
+	 * @return the amount of candies of the given family
+	 */
+	public int getCandies(PokemonFamilyId family) {
+		return candies[family.ordinal()];
+	}
+
+	/**
+	 * @return a copy of the candies of this account, indexed by family ordinal
+	 */
+	public int[] getCandies() {
+		return candies.clone();
+	}
+
+	/**
+	 * Builds an inventory export row by row, for example from a synthetic fleet
+	 */
+	public static final class Builder {
+		private final String account;
+		private int size;
+		private long[] ids;
+		private short[] species;
+		private short[] families;
+		private int[] cp;
+		private byte[] attack;
+		private byte[] defense;
+		private byte[] stamina;
+		private float[] level;
+		private int[] candiesToEvolve;
+		private byte[] flags;
+		private final int[] candies = new int[FAMILIES.length];
+
+		/**
+		 * Creates a builder for the given account
+		 *
+		 * @param account the name of the account
+		 * @param capacity the expected amount of pokemon
+		 */
+		public Builder(String account, int capacity) {
+			this.account = account;
+			allocate(Math.max(16, capacity));
+		}
+
+		private void allocate(int capacity) {
+			ids = Arrays.copyOf(ids != null ? ids : new long[0], capacity);
+			species = Arrays.copyOf(species != null ? species : new short[0], capacity);
+			families = Arrays.copyOf(families != null ? families : new short[0], capacity);
+			cp = Arrays.copyOf(cp != null ? cp : new int[0], capacity);
+			attack = Arrays.copyOf(attack != null ? attack : new byte[0], capacity);
+			defense = Arrays.copyOf(defense != null ? defense : new byte[0], capacity);
+			stamina = Arrays.copyOf(stamina != null ? stamina : new byte[0], capacity);
+			level = Arrays.copyOf(level != null ? level : new float[0], capacity);
+			candiesToEvolve = Arrays.copyOf(candiesToEvolve != null ? candiesToEvolve : new int[0], capacity);
+			flags = Arrays.copyOf(flags != null ? flags : new byte[0], capacity);
+		}
+
+		/**
+		 * Adds a pokemon to this export
+		 *
+		 * @param id the pokemon id
+		 * @param species the species
+		 * @param family the family
+		 * @param cp the CP
+		 * @param attack the individual attack
+		 * @param defense the individual defense
+		 * @param stamina the individual stamina
+		 * @param level the level
+		 * @param candiesToEvolve the candies needed to evolve, 0 if it cannot evolve
+		 * @param flags the flags of this pokemon, see {@link #FLAG_FAVORITE}, {@link #FLAG_DEPLOYED} and
+		 * {@link #FLAG_BUDDY}
+		 * @return this builder
+		 */
+		public Builder add(long id, PokemonId species, PokemonFamilyId family, int cp, int attack, int defense,
+				int stamina, float level, int candiesToEvolve, int flags) {
+			if (size == ids.length) {
+				allocate(size * 2);
+			}
+			this.ids[size] = id;
+			this.species[size] = (short) species.ordinal();
+			this.families[size] = (short) family.ordinal();
+			this.cp[size] = cp;
+			this.attack[size] = (byte) attack;
+			this.defense[size] = (byte) defense;
+			this.stamina[size] = (byte) stamina;
+			this.level[size] = level;
+			this.candiesToEvolve[size] = candiesToEvolve;
+			this.flags[size] = (byte) flags;
+			size++;
+			return this;
+		}
+
+		/**
+		 * Sets the amount of candies of the given family
+		 *
+		 * @param family the family
+		 * @param candies the amount of candies
+		 * @return this builder
+		 */
+		public Builder setCandies(PokemonFamilyId family, int candies) {
+			this.candies[family.ordinal()] = candies;
+			return this;
+		}
+
+		/**
+		 * @return the read-only export
+		 */
+		public InventoryColumns build() {
+			return new InventoryColumns(this);
+		}
+	}
+}
@@ -0,0 +1,41 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pokegoapi.api.inventory.analytics;
+
+/**
+ * A transfer or evolve rule, evaluated for every pokemon of an {@link InventoryColumns} export.
+ * Policies are called concurrently from several threads and must not keep mutable state.
+ */
+public interface InventoryPolicy {
+	enum Decision {
+		/**
+		 * This policy has no opinion, the next policy decides
+		 */
+		NONE,
+		KEEP,
+		TRANSFER,
+		EVOLVE
+	}
+
+	/**
+	 * Decides what to do with the pokemon in the given row
+	 *
+	 * @param inventory the inventory of the account
+	 * @param row the row of the pokemon
+	 * @return the decision for this pokemon
+	 */
+	Decision evaluate(InventoryColumns inventory, int row);
+}
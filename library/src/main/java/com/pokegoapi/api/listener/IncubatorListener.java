@@ -0,0 +1,43 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pokegoapi.api.listener;
+
+import com.pokegoapi.api.PokemonGo;
+import com.pokegoapi.api.inventory.EggIncubator;
+
+/**
+ * Listener for the progress of incubated eggs, computed from the distance walked by the player
+ */
+public interface IncubatorListener extends Listener {
+	/**
+	 * Called once when the egg in an incubator is within
+	 * {@link com.pokegoapi.api.inventory.Hatchery#getAboutToHatchDistance()} of its target distance
+	 *
+	 * @param api the current api
+	 * @param incubator the incubator containing the egg
+	 * @param kmLeft the distance left to walk (km)
+	 */
+	void onEggAboutToHatch(PokemonGo api, EggIncubator incubator, double kmLeft);
+
+	/**
+	 * Called once when the egg in an incubator reached its target distance. The hatched pokemon is received with the
+	 * next envelope and sent to {@link PokemonListener#onEggHatch}.
+	 *
+	 * @param api the current api
+	 * @param incubator the incubator containing the egg
+	 */
+	void onEggHatched(PokemonGo api, EggIncubator incubator);
+}
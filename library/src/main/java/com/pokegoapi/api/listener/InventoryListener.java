@@ -0,0 +1,33 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pokegoapi.api.listener;
+
+import com.pokegoapi.api.PokemonGo;
+import com.pokegoapi.api.inventory.InventoryDelta;
+
+/**
+ * Receives the changes of each inventory update, computed once by the library.
+ * Events are delivered in order on a separate thread, never on the thread that handles the server response.
+ */
+public interface InventoryListener extends Listener {
+	/**
+	 * Called after an inventory update has been applied
+	 *
+	 * @param api the current api
+	 * @param delta the changes in this update
+	 */
+	void onInventoryChanged(PokemonGo api, InventoryDelta delta);
+}
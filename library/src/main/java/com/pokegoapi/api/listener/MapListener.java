@@ -0,0 +1,86 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pokegoapi.api.listener;
+
+import POGOProtos.Enums.TeamColorOuterClass.TeamColor;
+import com.pokegoapi.api.PokemonGo;
+import com.pokegoapi.api.gym.Gym;
+import com.pokegoapi.api.map.fort.Fort;
+import com.pokegoapi.api.map.fort.Pokestop;
+import com.pokegoapi.api.map.fort.Raid;
+import com.pokegoapi.api.map.pokemon.CatchablePokemon;
+
+/**
+ * Receives the changes between consecutive map snapshots, computed once by the library
+ */
+public interface MapListener extends Listener {
+	/**
+	 * Called when a pokemon appears on the map
+	 *
+	 * @param api the current api
+	 * @param pokemon the pokemon that appeared
+	 */
+	void onPokemonAppeared(PokemonGo api, CatchablePokemon pokemon);
+
+	/**
+	 * Called when a pokemon is no longer visible on the map, because it expired, despawned or is out of range
+	 *
+	 * @param api the current api
+	 * @param pokemon the pokemon that is gone
+	 */
+	void onPokemonDespawned(PokemonGo api, CatchablePokemon pokemon);
+
+	/**
+	 * Called when a lure is added to a pokestop
+	 *
+	 * @param api the current api
+	 * @param pokestop the lured pokestop
+	 */
+	void onLureAdded(PokemonGo api, Pokestop pokestop);
+
+	/**
+	 * Called when the lure on a pokestop expires
+	 *
+	 * @param api the current api
+	 * @param pokestop the pokestop that is no longer lured
+	 */
+	void onLureExpired(PokemonGo api, Pokestop pokestop);
+
+	/**
+	 * Called when a new raid appears at a gym
+	 *
+	 * @param api the current api
+	 * @param raid the raid
+	 */
+	void onRaidStarted(PokemonGo api, Raid raid);
+
+	/**
+	 * Called when the team owning a gym changes
+	 *
+	 * @param api the current api
+	 * @param gym the gym
+	 * @param previousTeam the team that owned this gym before
+	 */
+	void onGymTeamChanged(PokemonGo api, Gym gym, TeamColor previousTeam);
+
+	/**
+	 * Called when the cooldown of a fort has ended
+	 *
+	 * @param api the current api
+	 * @param fort the fort that can be used again
+	 */
+	void onFortCooldownEnded(PokemonGo api, Fort fort);
+}
@@ -0,0 +1,161 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pokegoapi.api.map;
+
+import com.pokegoapi.api.gym.Gym;
+import com.pokegoapi.api.map.fort.Fort;
+import com.pokegoapi.api.map.fort.Pokestop;
+import com.pokegoapi.api.map.fort.Raid;
+import com.pokegoapi.api.map.pokemon.CatchablePokemon;
+import com.pokegoapi.google.common.geometry.S2CellId;
+import com.pokegoapi.google.common.geometry.S2LatLng;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+
+/**
+ * A merged, deduplicated view of an area, built from the map objects of many requests.
+ * Every cell and object is stamped with the last time it was seen.
+ */
+public class AreaView {
+	private final HashMap<Long, Long> cells = new HashMap<>();
+	private final HashMap<Long, CatchablePokemon> pokemon = new HashMap<>();
+	private final HashMap<String, Pokestop> pokestops = new HashMap<>();
+	private final HashMap<String, Gym> gyms = new HashMap<>();
+	private final HashMap<String, Raid> raids = new HashMap<>();
+	private final HashMap<Long, Point> spawnpoints = new HashMap<>();
+	private final HashMap<Long, Long> pokemonSeen = new HashMap<>();
+	private final HashMap<String, Long> fortsSeen = new HashMap<>();
+
+	/**
+	 * Merges the map objects returned for the given cells into this view
+	 *
+	 * @param cellIds the cells that were requested
+	 * @param mapObjects the returned map objects
+	 * @param time the time the map objects were received
+	 */
+	public synchronized void merge(long[] cellIds, MapObjects mapObjects, long time) {
+		for (long cell : cellIds) {
+			cells.put(cell, time);
+		}
+		for (CatchablePokemon catchable : mapObjects.getPokemon()) {
+			pokemon.put(catchable.getEncounterId(), catchable);
+			pokemonSeen.put(catchable.getEncounterId(), time);
+		}
+		for (Pokestop pokestop : mapObjects.getPokestops()) {
+			pokestops.put(pokestop.getId(), pokestop);
+			fortsSeen.put(pokestop.getId(), time);
+		}
+		for (Gym gym : mapObjects.getGyms()) {
+			gyms.put(gym.getId(), gym);
+			fortsSeen.put(gym.getId(), time);
+		}
+		for (Raid raid : mapObjects.getRaids()) {
+			raids.put(raid.getId(), raid);
+		}
+		for (Point spawnpoint : mapObjects.getSpawnpoints()) {
+			long key = S2CellId.fromLatLng(S2LatLng.fromDegrees(spawnpoint.getLatitude(),
+					spawnpoint.getLongitude())).id();
+			spawnpoints.put(key, spawnpoint);
+		}
+	}
+
+	/**
+	 * @return the number of cells that have been scanned
+	 */
+	public synchronized int getCellCount() {
+		return cells.size();
+	}
+
+	/**
+	 * Gets the last time the given cell was scanned
+	 *
+	 * @param cellId the level 15 cell id
+	 * @return the last scan time, or -1 if the cell was never scanned
+	 */
+	public synchronized long getScanTime(long cellId) {
+		Long time = cells.get(cellId);
+		return time != null ? time : -1;
+	}
+
+	/**
+	 * Gets all pokemon in this view that have not expired at the given time
+	 *
+	 * @param time the current time
+	 * @return the pokemon
+	 */
+	public synchronized List<CatchablePokemon> getPokemon(long time) {
+		List<CatchablePokemon> visible = new ArrayList<>();
+		for (CatchablePokemon catchable : pokemon.values()) {
+			long expirationTime = catchable.getExpirationTimestampMs();
+			if ((expirationTime == -1 || time < expirationTime) && !catchable.isDespawned()) {
+				visible.add(catchable);
+			}
+		}
+		return visible;
+	}
+
+	/**
+	 * @return all pokestops in this view
+	 */
+	public synchronized List<Pokestop> getPokestops() {
+		return new ArrayList<>(pokestops.values());
+	}
+
+	/**
+	 * @return all gyms in this view
+	 */
+	public synchronized List<Gym> getGyms() {
+		return new ArrayList<>(gyms.values());
+	}
+
+	/**
+	 * @return all raids in this view
+	 */
+	public synchronized List<Raid> getRaids() {
+		return new ArrayList<>(raids.values());
+	}
+
+	/**
+	 * @return all spawnpoints in this view
+	 */
+	public synchronized List<Point> getSpawnpoints() {
+		return new ArrayList<>(spawnpoints.values());
+	}
+
+	/**
+	 * Gets the last time the given pokemon was seen
+	 *
+	 * @param catchable the pokemon
+	 * @return the last time it was seen, or -1 if it is not in this view
+	 */
+	public synchronized long getLastSeen(CatchablePokemon catchable) {
+		Long time = pokemonSeen.get(catchable.getEncounterId());
+		return time != null ? time : -1;
+	}
+
+	/**
+	 * Gets the last time the given fort was seen
+	 *
+	 * @param fort the fort
+	 * @return the last time it was seen, or -1 if it is not in this view
+	 */
+	public synchronized long getLastSeen(Fort fort) {
+		Long time = fortsSeen.get(fort.getId());
+		return time != null ? time : -1;
+	}
+}
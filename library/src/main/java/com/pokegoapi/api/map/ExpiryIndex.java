@@ -0,0 +1,195 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pokegoapi.api.map;
+
+import com.pokegoapi.api.map.pokemon.CatchablePokemon;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+
+/**
+ * Catchable pokemon ordered by expiration time. The entries are kept in a sorted array, which is also a valid
+ * min-heap, so expired pokemon are evicted lazily from the front in constant amortized time per pokemon and the live
+ * pokemon can be iterated by index without allocating. Pokemon that never expire are ordered last.
+ * Despawned pokemon are evicted once they reach the front, accessors that return pokemon skip them until then.
+ */
+public class ExpiryIndex {
+	private final CatchablePokemon[] entries;
+	private final long[] expirations;
+	private int start;
+	private int end;
+
+	/**
+	 * Creates an index over the given pokemon
+	 *
+	 * @param pokemon the pokemon to index
+	 */
+	ExpiryIndex(Collection<CatchablePokemon> pokemon) {
+		entries = pokemon.toArray(new CatchablePokemon[pokemon.size()]);
+		Arrays.sort(entries, new Comparator<CatchablePokemon>() {
+			@Override
+			public int compare(CatchablePokemon first, CatchablePokemon second) {
+				long firstExpiration = getExpiration(first);
+				long secondExpiration = getExpiration(second);
+				return firstExpiration < secondExpiration ? -1 : (firstExpiration == secondExpiration ? 0 : 1);
+			}
+		});
+		expirations = new long[entries.length];
+		for (int i = 0; i < entries.length; i++) {
+			expirations[i] = getExpiration(entries[i]);
+		}
+		end = entries.length;
+	}
+
+	private static long getExpiration(CatchablePokemon pokemon) {
+		long expirationTime = pokemon.getExpirationTimestampMs();
+		return expirationTime == -1 ? Long.MAX_VALUE : expirationTime;
+	}
+
+	/**
+	 * Removes the pokemon at the front that have expired at the given time or have despawned
+	 *
+	 * @param time the current time
+	 * @return the number of remaining pokemon, including despawned pokemon that are not at the front yet
+	 */
+	public synchronized int evict(long time) {
+		while (start < end && (expirations[start] <= time || entries[start].isDespawned())) {
+			entries[start++] = null;
+		}
+		return end - start;
+	}
+
+	/**
+	 * @return the number of remaining pokemon as of the last eviction, including despawned pokemon
+	 */
+	public synchronized int size() {
+		return end - start;
+	}
+
+	/**
+	 * Gets a remaining pokemon by its position in expiration order. Positions shift when pokemon are evicted.
+	 * The pokemon may have despawned if it is not at the front.
+	 *
+	 * @param index the position, from 0 (expiring first) to {@link #size()} - 1
+	 * @return the pokemon at the given position
+	 * @throws IndexOutOfBoundsException if the position is out of range
+	 */
+	public synchronized CatchablePokemon get(int index) {
+		if (index < 0 || index >= end - start) {
+			throw new IndexOutOfBoundsException("Index: " + index + ", Size: " + (end - start));
+		}
+		return entries[start + index];
+	}
+
+	/**
+	 * Evicts expired pokemon and copies the live pokemon into the given array, in expiration order
+	 *
+	 * @param time the current time
+	 * @param output the array to copy into, only as many pokemon as fit are copied
+	 * @return the number of live pokemon
+	 */
+	public synchronized int getLive(long time, CatchablePokemon[] output) {
+		evict(time);
+		int live = 0;
+		for (int i = start; i < end; i++) {
+			CatchablePokemon pokemon = entries[i];
+			if (!pokemon.isDespawned()) {
+				if (live < output.length) {
+					output[live] = pokemon;
+				}
+				live++;
+			}
+		}
+		return live;
+	}
+
+	/**
+	 * Counts the live pokemon that expire within the given window. These are the first pokemon in expiration order.
+	 *
+	 * @param time the current time
+	 * @param window the window in milliseconds
+	 * @return the number of pokemon expiring within the window
+	 */
+	public synchronized int countExpiringWithin(long time, long window) {
+		int bound = findExpiringBound(time, window);
+		int count = 0;
+		for (int i = start; i < bound; i++) {
+			if (!entries[i].isDespawned()) {
+				count++;
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Gets the live pokemon that expire within the given window, soonest first
+	 *
+	 * @param time the current time
+	 * @param window the window in milliseconds
+	 * @return the pokemon expiring within the window
+	 */
+	public synchronized List<CatchablePokemon> getExpiringWithin(long time, long window) {
+		int bound = findExpiringBound(time, window);
+		List<CatchablePokemon> expiring = new ArrayList<>(bound - start);
+		for (int i = start; i < bound; i++) {
+			CatchablePokemon pokemon = entries[i];
+			if (!pokemon.isDespawned()) {
+				expiring.add(pokemon);
+			}
+		}
+		return expiring;
+	}
+
+	/**
+	 * Evicts expired pokemon and finds the end of the pokemon that expire within the given window
+	 *
+	 * @param time the current time
+	 * @param window the window in milliseconds
+	 * @return the position after the last pokemon expiring within the window
+	 */
+	private int findExpiringBound(long time, long window) {
+		evict(time);
+		long limit = time + window;
+		if (window > 0 && limit < time) {
+			limit = Long.MAX_VALUE;
+		}
+		int low = start;
+		int high = end;
+		while (low < high) {
+			int middle = (low + high) >>> 1;
+			if (expirations[middle] <= limit) {
+				low = middle + 1;
+			} else {
+				high = middle;
+			}
+		}
+		return low;
+	}
+
+	/**
+	 * Gets the time at which the next live pokemon expires
+	 *
+	 * @param time the current time
+	 * @return the next expiration time, or {@link Long#MAX_VALUE} if no live pokemon expires
+	 */
+	public synchronized long getNextExpiration(long time) {
+		evict(time);
+		return start < end ? expirations[start] : Long.MAX_VALUE;
+	}
+}
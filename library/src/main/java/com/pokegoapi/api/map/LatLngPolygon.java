@@ -0,0 +1,165 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pokegoapi.api.map;
+
+import com.pokegoapi.google.common.geometry.S2Cap;
+import com.pokegoapi.google.common.geometry.S2Cell;
+import com.pokegoapi.google.common.geometry.S2LatLng;
+import com.pokegoapi.google.common.geometry.S2LatLngRect;
+import com.pokegoapi.google.common.geometry.S2Region;
+import com.pokegoapi.util.MapPoint;
+
+import java.util.List;
+
+/**
+ * A simple polygon region for scanning. Edges are straight lines in latitude / longitude space, which is accurate
+ * enough at the scale of a scan area. The polygon must not cross the antimeridian or contain a pole.
+ */
+public class LatLngPolygon implements S2Region {
+	private final double[] latitudes;
+	private final double[] longitudes;
+	private final S2LatLngRect bound;
+
+	/**
+	 * Creates a polygon from the given vertices, in order. The polygon is closed implicitly.
+	 *
+	 * @param vertices the vertices of this polygon
+	 * @throws IllegalArgumentException if there are less than 3 vertices
+	 */
+	public LatLngPolygon(List<? extends MapPoint> vertices) {
+		if (vertices.size() < 3) {
+			throw new IllegalArgumentException("A polygon needs at least 3 vertices");
+		}
+		int count = vertices.size();
+		latitudes = new double[count];
+		longitudes = new double[count];
+		double minLatitude = Double.POSITIVE_INFINITY;
+		double minLongitude = Double.POSITIVE_INFINITY;
+		double maxLatitude = Double.NEGATIVE_INFINITY;
+		double maxLongitude = Double.NEGATIVE_INFINITY;
+		for (int i = 0; i < count; i++) {
+			MapPoint vertex = vertices.get(i);
+			latitudes[i] = vertex.getLatitude();
+			longitudes[i] = vertex.getLongitude();
+			minLatitude = Math.min(minLatitude, latitudes[i]);
+			minLongitude = Math.min(minLongitude, longitudes[i]);
+			maxLatitude = Math.max(maxLatitude, latitudes[i]);
+			maxLongitude = Math.max(maxLongitude, longitudes[i]);
+		}
+		bound = new S2LatLngRect(S2LatLng.fromDegrees(minLatitude, minLongitude),
+				S2LatLng.fromDegrees(maxLatitude, maxLongitude));
+	}
+
+	/**
+	 * Checks if the given location is inside this polygon
+	 *
+	 * @param latitude the latitude
+	 * @param longitude the longitude
+	 * @return true if the location is inside this polygon
+	 */
+	public boolean contains(double latitude, double longitude) {
+		boolean inside = false;
+		for (int i = 0, j = latitudes.length - 1; i < latitudes.length; j = i++) {
+			if ((latitudes[i] > latitude) != (latitudes[j] > latitude)) {
+				double crossing = longitudes[i] + (latitude - latitudes[i]) * (longitudes[j] - longitudes[i])
+						/ (latitudes[j] - latitudes[i]);
+				if (longitude < crossing) {
+					inside = !inside;
+				}
+			}
+		}
+		return inside;
+	}
+
+	@Override
+	public S2Cap getCapBound() {
+		return bound.getCapBound();
+	}
+
+	@Override
+	public S2LatLngRect getRectBound() {
+		return bound;
+	}
+
+	@Override
+	public boolean contains(S2Cell cell) {
+		double[] cellLatitudes = new double[4];
+		double[] cellLongitudes = new double[4];
+		getVertices(cell, cellLatitudes, cellLongitudes);
+		for (int k = 0; k < 4; k++) {
+			if (!contains(cellLatitudes[k], cellLongitudes[k])) {
+				return false;
+			}
+		}
+		return !crossesEdges(cellLatitudes, cellLongitudes);
+	}
+
+	@Override
+	public boolean mayIntersect(S2Cell cell) {
+		if (!bound.mayIntersect(cell)) {
+			return false;
+		}
+		double[] cellLatitudes = new double[4];
+		double[] cellLongitudes = new double[4];
+		getVertices(cell, cellLatitudes, cellLongitudes);
+		for (int k = 0; k < 4; k++) {
+			if (contains(cellLatitudes[k], cellLongitudes[k])) {
+				return true;
+			}
+		}
+		if (cell.contains(S2LatLng.fromDegrees(latitudes[0], longitudes[0]).toPoint())) {
+			return true;
+		}
+		return crossesEdges(cellLatitudes, cellLongitudes);
+	}
+
+	private static void getVertices(S2Cell cell, double[] latitudes, double[] longitudes) {
+		for (int k = 0; k < 4; k++) {
+			S2LatLng vertex = new S2LatLng(cell.getVertex(k));
+			latitudes[k] = vertex.latDegrees();
+			longitudes[k] = vertex.lngDegrees();
+		}
+	}
+
+	/**
+	 * Checks if any edge of the given quadrilateral crosses any edge of this polygon
+	 */
+	private boolean crossesEdges(double[] cellLatitudes, double[] cellLongitudes) {
+		for (int k = 0; k < 4; k++) {
+			int next = (k + 1) & 3;
+			for (int i = 0, j = latitudes.length - 1; i < latitudes.length; j = i++) {
+				if (intersects(cellLatitudes[k], cellLongitudes[k], cellLatitudes[next], cellLongitudes[next],
+						latitudes[j], longitudes[j], latitudes[i], longitudes[i])) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	private static boolean intersects(double y1, double x1, double y2, double x2,
+			double y3, double x3, double y4, double x4) {
+		double d1 = orientation(x3, y3, x4, y4, x1, y1);
+		double d2 = orientation(x3, y3, x4, y4, x2, y2);
+		double d3 = orientation(x1, y1, x2, y2, x3, y3);
+		double d4 = orientation(x1, y1, x2, y2, x4, y4);
+		return ((d1 > 0 && d2 < 0) || (d1 < 0 && d2 > 0)) && ((d3 > 0 && d4 < 0) || (d3 < 0 && d4 > 0));
+	}
+
+	private static double orientation(double ax, double ay, double bx, double by, double cx, double cy) {
+		return (bx - ax) * (cy - ay) - (by - ay) * (cx - ax);
+	}
+}
@@ -18,29 +18,75 @@ package com.pokegoapi.api.map;
 import POGOProtos.Map.MapCellOuterClass.MapCell;
 import POGOProtos.Networking.Requests.Messages.GetMapObjectsMessageOuterClass.GetMapObjectsMessage;
 import POGOProtos.Networking.Requests.RequestTypeOuterClass.RequestType;
+import POGOProtos.Networking.Responses.GetIncensePokemonResponseOuterClass.GetIncensePokemonResponse;
 import POGOProtos.Networking.Responses.GetMapObjectsResponseOuterClass.GetMapObjectsResponse;
 import com.google.protobuf.InvalidProtocolBufferException;
 import com.pokegoapi.api.PokemonGo;
+import com.pokegoapi.api.listener.MapListener;
+import com.pokegoapi.api.map.pokemon.CatchablePokemon;
 import com.pokegoapi.exceptions.request.RequestFailedException;
 import com.pokegoapi.google.common.geometry.MutableInteger;
 import com.pokegoapi.google.common.geometry.S2CellId;
 import com.pokegoapi.google.common.geometry.S2LatLng;
 import com.pokegoapi.main.ServerRequest;
+import com.pokegoapi.util.Log;
 import lombok.Getter;
+import lombok.Setter;
 
+import java.io.IOException;
 import java.util.ArrayList;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
 
 public class Map {
+	private static final String TAG = Map.class.getSimpleName();
+
 	private final PokemonGo api;
+	/**
+	 * The width, in level 15 cells, of the square of cells requested around the player
+	 */
+	@Getter
+	@Setter
 	private int defaultCellWidth = 3;
 
+	/**
+	 * The latest published snapshot of map objects
+	 */
 	@Getter
-	private MapObjects mapObjects;
+	private volatile MapObjects mapObjects;
+	private long mapObjectsVersion;
+	private final Object publishLock = new Object();
+	private long lastDiffTime;
+	private Set<CatchablePokemon> lastVisiblePokemon;
+	private final ThreadPoolExecutor eventExecutor = new ThreadPoolExecutor(0, 1, 60, TimeUnit.SECONDS,
+			new LinkedBlockingQueue<Runnable>(), new ThreadFactory() {
+				@Override
+				public Thread newThread(Runnable runnable) {
+					Thread thread = new Thread(runnable, "Map Events");
+					thread.setDaemon(true);
+					return thread;
+				}
+			});
+	private volatile CellNeighbourhood neighbourhood;
 
 	@Getter
 	private long mapUpdateTime;
 
+	@Getter
+	private final MapCellCache cellCache = new MapCellCache();
+
+	/**
+	 * Optional persistent store that received cells are written to, may be shared between accounts
+	 */
+	@Getter
+	@Setter
+	private volatile MapStore store;
+
 	private final Object updateLock = new Object();
 
 	/**
@@ -50,7 +96,9 @@ public class Map {
 	 */
 	public Map(PokemonGo api) {
 		this.api = api;
-		this.mapObjects = new MapObjects(api);
+		MapObjects mapObjects = new MapObjects(api);
+		mapObjects.seal(0);
+		this.mapObjects = mapObjects;
 	}
 
 	/**
@@ -62,7 +110,7 @@ public class Map {
 	public boolean update() throws RequestFailedException {
 		boolean updated = false;
 		if (!(Double.isNaN(api.getLatitude()) || Double.isNaN(api.getLongitude()))) {
-			this.mapObjects = requestMapObjects();
+			publish(requestMapObjects());
 			updated = true;
 		}
 		synchronized (this.updateLock) {
@@ -71,6 +119,70 @@ public class Map {
 		return updated;
 	}
 
+	/**
+	 * Adds the incense pokemon from the given response by publishing a new snapshot
+	 *
+	 * @param response the response containing the incense pokemon, if any
+	 */
+	public void addIncensePokemon(GetIncensePokemonResponse response) {
+		synchronized (publishLock) {
+			MapObjects previous = mapObjects;
+			MapObjects updated = previous.withIncensePokemon(response);
+			if (updated != previous) {
+				publish(previous, updated);
+			}
+		}
+	}
+
+	/**
+	 * Seals and publishes the given snapshot, replacing the current one
+	 *
+	 * @param mapObjects the snapshot to publish
+	 */
+	private void publish(MapObjects mapObjects) {
+		synchronized (publishLock) {
+			publish(this.mapObjects, mapObjects);
+		}
+	}
+
+	/**
+	 * Seals and publishes a snapshot, then queues the changes since the previous snapshot for the
+	 * {@link MapListener}s. Must be called while holding the publish lock, so changes are computed and delivered
+	 * in the order the snapshots are published.
+	 *
+	 * @param previous the currently published snapshot
+	 * @param current the snapshot to publish
+	 */
+	private void publish(MapObjects previous, MapObjects current) {
+		current.seal(++mapObjectsVersion);
+		mapObjects = current;
+		final List<MapListener> listeners = api.getListeners(MapListener.class);
+		long time = api.currentTimeMillis();
+		if (!listeners.isEmpty()) {
+			Set<CatchablePokemon> previousPokemon = lastVisiblePokemon;
+			if (previousPokemon == null) {
+				previousPokemon = previous.getPokemon();
+			}
+			final MapDiff diff = new MapDiff(previous, previousPokemon, current, lastDiffTime, time);
+			lastVisiblePokemon = current.getPokemon();
+			if (!diff.isEmpty()) {
+				eventExecutor.execute(new Runnable() {
+					@Override
+					public void run() {
+						try {
+							diff.dispatch(api, listeners);
+						} catch (RuntimeException e) {
+							Log.e(TAG, "Map listener failed", e);
+						}
+					}
+				});
+			}
+		} else {
+			lastVisiblePokemon = null;
+		}
+		lastDiffTime = time;
+	}
+
 	/**
 	 * Requests and returns MapObjects from the server.
 	 *
@@ -79,24 +191,60 @@ public class Map {
 	 */
 	protected MapObjects requestMapObjects()
 			throws RequestFailedException {
-		List<Long> cells = getDefaultCells();
+		return requestMapObjects(api.getLatitude(), api.getLongitude(), getDefaultCells());
+	}
+
+	/**
+	 * Requests MapObjects for the given cells from the server, without publishing them.
+	 * The given location must be the current location of the player.
+	 *
+	 * @param latitude the latitude of the player
+	 * @param longitude the longitude of the player
+	 * @param cells the ids of the level 15 cells to request
+	 * @return the returned MapObjects
+	 * @throws RequestFailedException if an exception occurred while sending requests
+	 */
+	public MapObjects requestMapObjects(double latitude, double longitude, long[] cells)
+			throws RequestFailedException {
 		GetMapObjectsMessage.Builder builder = GetMapObjectsMessage.newBuilder();
-		builder.setLatitude(api.getLatitude());
-		builder.setLongitude(api.getLongitude());
-		for (Long cell : cells) {
+		builder.setLatitude(latitude);
+		builder.setLongitude(longitude);
+		for (long cell : cells) {
 			builder.addCellId(cell);
-			builder.addSinceTimestampMs(0);
+			builder.addSinceTimestampMs(cellCache.getTimestamp(cell));
 		}
 		ServerRequest request = new ServerRequest(RequestType.GET_MAP_OBJECTS, builder.build());
 		api.getRequestHandler().sendServerRequests(request, true);
 		try {
 			long updateTime = mapUpdateTime;
+			long currentTime = api.currentTimeMillis();
 			GetMapObjectsResponse response = GetMapObjectsResponse.parseFrom(request.getData());
 			MapObjects mapObjects = new MapObjects(api);
+			Set<Long> returnedCells = new HashSet<>();
+			MapStore store = this.store;
 			for (MapCell cell : response.getMapCellsList()) {
-				mapObjects.addCell(cell);
+				MapCell merged = cellCache.merge(cell, currentTime);
+				mapObjects.addCell(merged);
+				if (store != null) {
+					// The response only holds objects changed since the requested timestamp
+					try {
+						store.update(cell, currentTime);
+					} catch (IOException e) {
+						Log.e(TAG, "Failed to store map cell " + cell.getS2CellId(), e);
+					}
+				}
+				returnedCells.add(cell.getS2CellId());
 				updateTime = Math.max(updateTime, cell.getCurrentTimestampMs());
 			}
+			// Cells without changes may be left out of the response, use their cached state
+			for (long cell : cells) {
+				if (!returnedCells.contains(cell)) {
+					MapCell cached = cellCache.getCell(cell);
+					if (cached != null) {
+						mapObjects.addCell(cached);
+					}
+				}
+			}
 			mapUpdateTime = updateTime;
 			return mapObjects;
 		} catch (InvalidProtocolBufferException e) {
@@ -105,10 +253,10 @@ public class Map {
 	}
 
 	/**
-	 * @return a list of all default cells
+	 * @return the ids of all default cells, must not be modified
 	 */
-	private List<Long> getDefaultCells() {
-		return getCellIds(api.getLatitude(), api.getLongitude(), defaultCellWidth);
+	private long[] getDefaultCells() {
+		return getCellIdArray(api.getLatitude(), api.getLongitude(), defaultCellWidth);
 	}
 
 	/**
@@ -120,26 +268,76 @@ public class Map {
 	 * @return List of Cells
 	 */
 	public List<Long> getCellIds(double latitude, double longitude, int width) {
-		S2LatLng latLng = S2LatLng.fromDegrees(latitude, longitude);
-		S2CellId cellId = S2CellId.fromLatLng(latLng).parent(15);
+		long[] ids = getCellIdArray(latitude, longitude, width);
+		List<Long> cells = new ArrayList<>(ids.length);
+		for (long id : ids) {
+			cells.add(id);
+		}
+		return cells;
+	}
+
+	/**
+	 * Gets the ids of all level 15 cells in a square of the given width around the given location.
+	 * The neighbourhood is only recomputed when the centre cell or the width changes.
+	 *
+	 * @param latitude latitude
+	 * @param longitude longitude
+	 * @param width width
+	 * @return the cell ids, must not be modified
+	 */
+	public long[] getCellIdArray(double latitude, double longitude, int width) {
+		long centre = S2CellId.fromLatLng(S2LatLng.fromDegrees(latitude, longitude)).parent(15).id();
+		CellNeighbourhood neighbourhood = this.neighbourhood;
+		if (neighbourhood == null || neighbourhood.centre != centre || neighbourhood.width != width) {
+			neighbourhood = new CellNeighbourhood(centre, width);
+			this.neighbourhood = neighbourhood;
+		}
+		return neighbourhood.cells;
+	}
+
+	/**
+	 * Gets the ids of all level 15 cells in a square of the given width around the given cell, without caching
+	 *
+	 * @param centre the level 15 centre cell id
+	 * @param width width
+	 * @return the cell ids
+	 */
+	static long[] getNeighbourhood(long centre, int width) {
+		return new CellNeighbourhood(centre, width).cells;
+	}
 
-		MutableInteger index = new MutableInteger(0);
-		MutableInteger jindex = new MutableInteger(0);
+	/**
+	 * The level 15 cells surrounding a centre cell
+	 */
+	private static final class CellNeighbourhood {
+		private final long centre;
+		private final int width;
+		private final long[] cells;
 
-		int level = cellId.level();
-		int size = 1 << (S2CellId.MAX_LEVEL - level);
-		int face = cellId.toFaceIJOrientation(index, jindex, null);
+		private CellNeighbourhood(long centre, int width) {
+			this.centre = centre;
+			this.width = width;
 
-		List<Long> cells = new ArrayList<>();
+			S2CellId cellId = new S2CellId(centre);
+			MutableInteger index = new MutableInteger(0);
+			MutableInteger jindex = new MutableInteger(0);
 
-		int halfWidth = (int) Math.floor(width / 2);
-		for (int x = -halfWidth; x <= halfWidth; x++) {
-			for (int y = -halfWidth; y <= halfWidth; y++) {
-				cells.add(S2CellId.fromFaceIJ(face, index.intValue() + x * size,
-						jindex.intValue() + y * size).parent(15).id());
+			int size = 1 << (S2CellId.MAX_LEVEL - cellId.level());
+			int face = cellId.toFaceIJOrientation(index, jindex, null);
+
+			int halfWidth = width / 2;
+			int side = halfWidth * 2 + 1;
+			cells = new long[side * side];
+			int cell = 0;
+			for (int x = -halfWidth; x <= halfWidth; x++) {
+				int i = index.intValue() + x * size;
+				for (int y = -halfWidth; y <= halfWidth; y++) {
+					int j = jindex.intValue() + y * size;
+					boolean sameFace = i >= 0 && i < S2CellId.MAX_SIZE && j >= 0 && j < S2CellId.MAX_SIZE;
+					cells[cell++] = S2CellId.fromFaceIJSame(face, i, j, sameFace).parent(15).id();
+				}
 			}
 		}
-		return cells;
 	}
 
 	/**
@@ -0,0 +1,176 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pokegoapi.api.map;
+
+import POGOProtos.Map.Fort.FortDataOuterClass.FortData;
+import POGOProtos.Map.MapCellOuterClass.MapCell;
+import POGOProtos.Map.Pokemon.MapPokemonOuterClass.MapPokemon;
+import POGOProtos.Map.Pokemon.WildPokemonOuterClass.WildPokemon;
+import POGOProtos.Map.SpawnPointOuterClass.SpawnPoint;
+
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Set;
+
+/**
+ * Caches the last known state of each map cell, so map requests only need to ask for changes since the
+ * last server timestamp of each cell.
+ */
+public class MapCellCache {
+	private static final int DEFAULT_CAPACITY = 256;
+
+	private final LinkedHashMap<Long, CachedCell> cells;
+
+	/**
+	 * Creates a cell cache with the default capacity
+	 */
+	public MapCellCache() {
+		this(DEFAULT_CAPACITY);
+	}
+
+	/**
+	 * Creates a cell cache
+	 *
+	 * @param capacity the maximum amount of cells to cache, least recently requested cells are evicted first
+	 */
+	public MapCellCache(final int capacity) {
+		this.cells = new LinkedHashMap<Long, CachedCell>(16, 0.75F, true) {
+			@Override
+			protected boolean removeEldestEntry(java.util.Map.Entry<Long, CachedCell> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	/**
+	 * Gets the timestamp to send as since_timestamp_ms for the given cell
+	 *
+	 * @param cellId the cell id
+	 * @return the last complete server timestamp of the given cell, or 0 if it is not cached
+	 */
+	public synchronized long getTimestamp(long cellId) {
+		CachedCell cached = cells.get(cellId);
+		return cached != null ? cached.timestamp : 0;
+	}
+
+	/**
+	 * Gets the cached state of the given cell
+	 *
+	 * @param cellId the cell id
+	 * @return the cached cell, or null if it is not cached
+	 */
+	public synchronized MapCell getCell(long cellId) {
+		CachedCell cached = cells.get(cellId);
+		return cached != null ? cached.cell : null;
+	}
+
+	/**
+	 * Merges a cell returned by the server into the cached state of that cell
+	 *
+	 * @param delta the cell returned by the server
+	 * @param currentTime the current time, used to drop expired pokemon
+	 * @return the merged cell
+	 */
+	public synchronized MapCell merge(MapCell delta, long currentTime) {
+		long cellId = delta.getS2CellId();
+		CachedCell cached = cells.get(cellId);
+		MapCell merged;
+		long timestamp;
+		if (cached == null) {
+			merged = delta;
+			timestamp = delta.getIsTruncatedList() ? 0 : delta.getCurrentTimestampMs();
+		} else {
+			merged = merge(cached.cell, delta, currentTime);
+			// A truncated list may be missing changes, so request them again next time
+			timestamp = delta.getIsTruncatedList() ? cached.timestamp : delta.getCurrentTimestampMs();
+		}
+		cells.put(cellId, new CachedCell(merged, timestamp));
+		return merged;
+	}
+
+	/**
+	 * Removes all cached cells
+	 */
+	public synchronized void clear() {
+		cells.clear();
+	}
+
+	private MapCell merge(MapCell cached, MapCell delta, long currentTime) {
+		Set<String> deleted = new HashSet<>(delta.getDeletedObjectsList());
+
+		LinkedHashMap<String, FortData> forts = new LinkedHashMap<>();
+		for (FortData fort : cached.getFortsList()) {
+			if (!deleted.contains(fort.getId())) {
+				forts.put(fort.getId(), fort);
+			}
+		}
+		for (FortData fort : delta.getFortsList()) {
+			forts.put(fort.getId(), fort);
+		}
+
+		Set<SpawnPoint> spawnPoints = new LinkedHashSet<>(cached.getSpawnPointsList());
+		spawnPoints.addAll(delta.getSpawnPointsList());
+		Set<SpawnPoint> decimatedSpawnPoints = new LinkedHashSet<>(cached.getDecimatedSpawnPointsList());
+		decimatedSpawnPoints.addAll(delta.getDecimatedSpawnPointsList());
+
+		LinkedHashMap<Long, MapPokemon> catchable = new LinkedHashMap<>();
+		for (MapPokemon pokemon : cached.getCatchablePokemonsList()) {
+			long expiration = pokemon.getExpirationTimestampMs();
+			if (expiration == -1 || expiration > currentTime) {
+				catchable.put(pokemon.getEncounterId(), pokemon);
+			}
+		}
+		for (MapPokemon pokemon : delta.getCatchablePokemonsList()) {
+			catchable.put(pokemon.getEncounterId(), pokemon);
+		}
+
+		LinkedHashMap<Long, WildPokemon> wild = new LinkedHashMap<>();
+		for (WildPokemon pokemon : cached.getWildPokemonsList()) {
+			long hidden = pokemon.getTimeTillHiddenMs();
+			if (hidden <= 0 || pokemon.getLastModifiedTimestampMs() + hidden > currentTime) {
+				wild.put(pokemon.getEncounterId(), pokemon);
+			}
+		}
+		for (WildPokemon pokemon : delta.getWildPokemonsList()) {
+			wild.put(pokemon.getEncounterId(), pokemon);
+		}
+
+		// Nearby pokemon and fort summaries are relative to the player, so always use the latest
+		return MapCell.newBuilder()
+				.setS2CellId(delta.getS2CellId())
+				.setCurrentTimestampMs(Math.max(cached.getCurrentTimestampMs(), delta.getCurrentTimestampMs()))
+				.setIsTruncatedList(delta.getIsTruncatedList())
+				.addAllForts(forts.values())
+				.addAllSpawnPoints(spawnPoints)
+				.addAllDecimatedSpawnPoints(decimatedSpawnPoints)
+				.addAllCatchablePokemons(catchable.values())
+				.addAllWildPokemons(wild.values())
+				.addAllNearbyPokemons(delta.getNearbyPokemonsList())
+				.addAllFortSummaries(delta.getFortSummariesList())
+				.build();
+	}
+
+	private static final class CachedCell {
+		private final MapCell cell;
+		private final long timestamp;
+
+		private CachedCell(MapCell cell, long timestamp) {
+			this.cell = cell;
+			this.timestamp = timestamp;
+		}
+	}
+}
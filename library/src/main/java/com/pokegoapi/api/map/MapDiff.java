@@ -0,0 +1,155 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pokegoapi.api.map;
+
+import POGOProtos.Enums.TeamColorOuterClass.TeamColor;
+import com.pokegoapi.api.PokemonGo;
+import com.pokegoapi.api.gym.Gym;
+import com.pokegoapi.api.listener.MapListener;
+import com.pokegoapi.api.map.fort.Fort;
+import com.pokegoapi.api.map.fort.Pokestop;
+import com.pokegoapi.api.map.fort.Raid;
+import com.pokegoapi.api.map.pokemon.CatchablePokemon;
+import lombok.Getter;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * The changes between two consecutive map snapshots
+ */
+public class MapDiff {
+	@Getter
+	private final List<CatchablePokemon> appearedPokemon = new ArrayList<>();
+	@Getter
+	private final List<CatchablePokemon> despawnedPokemon = new ArrayList<>();
+	@Getter
+	private final List<Pokestop> luresAdded = new ArrayList<>();
+	@Getter
+	private final List<Pokestop> luresExpired = new ArrayList<>();
+	@Getter
+	private final List<Raid> raidsStarted = new ArrayList<>();
+	@Getter
+	private final List<Gym> gymTeamChanges = new ArrayList<>();
+	private final List<TeamColor> previousTeams = new ArrayList<>();
+	@Getter
+	private final List<Fort> cooldownsEnded = new ArrayList<>();
+
+	/**
+	 * Computes the changes between two snapshots
+	 *
+	 * @param previous the previous snapshot
+	 * @param previousPokemon the pokemon that were visible when the previous diff was computed
+	 * @param current the current snapshot
+	 * @param previousTime the time the previous diff was computed at
+	 * @param time the current time
+	 */
+	public MapDiff(MapObjects previous, Set<CatchablePokemon> previousPokemon, MapObjects current,
+			long previousTime, long time) {
+		Set<CatchablePokemon> visible = current.getPokemon();
+		for (CatchablePokemon pokemon : visible) {
+			if (!previousPokemon.contains(pokemon)) {
+				appearedPokemon.add(pokemon);
+			}
+		}
+		for (CatchablePokemon pokemon : previousPokemon) {
+			if (!visible.contains(pokemon)) {
+				despawnedPokemon.add(pokemon);
+			}
+		}
+
+		for (Pokestop pokestop : current.getPokestops()) {
+			Pokestop old = previous.getPokestop(pokestop.getId());
+			boolean lured = pokestop.hasLure();
+			if (lured && (old == null || !old.hasLure())) {
+				luresAdded.add(pokestop);
+			} else if (!lured && old != null && old.hasLure()) {
+				luresExpired.add(pokestop);
+			}
+			addCooldown(pokestop, previousTime, time);
+		}
+
+		for (Gym gym : current.getGyms()) {
+			Gym old = previous.getGym(gym.getId());
+			if (old != null && old.getOwnedByTeam() != gym.getOwnedByTeam()) {
+				gymTeamChanges.add(gym);
+				previousTeams.add(old.getOwnedByTeam());
+			}
+			addCooldown(gym, previousTime, time);
+		}
+
+		HashMap<String, Raid> previousRaids = new HashMap<>();
+		for (Raid raid : previous.getRaids()) {
+			previousRaids.put(raid.getId(), raid);
+		}
+		for (Raid raid : current.getRaids()) {
+			Raid old = previousRaids.get(raid.getId());
+			if (old == null || old.getRaidSeed() != raid.getRaidSeed()) {
+				raidsStarted.add(raid);
+			}
+		}
+	}
+
+	private void addCooldown(Fort fort, long previousTime, long time) {
+		long cooldown = fort.getCooldownCompleteTimestampMs();
+		if (cooldown > previousTime && cooldown <= time) {
+			cooldownsEnded.add(fort);
+		}
+	}
+
+	/**
+	 * @return true if there are no changes
+	 */
+	public boolean isEmpty() {
+		return appearedPokemon.isEmpty() && despawnedPokemon.isEmpty() && luresAdded.isEmpty()
+				&& luresExpired.isEmpty() && raidsStarted.isEmpty() && gymTeamChanges.isEmpty()
+				&& cooldownsEnded.isEmpty();
+	}
+
+	/**
+	 * Sends all changes to the given listeners
+	 *
+	 * @param api the current api
+	 * @param listeners the listeners to notify
+	 */
+	public void dispatch(PokemonGo api, List<MapListener> listeners) {
+		for (MapListener listener : listeners) {
+			for (CatchablePokemon pokemon : appearedPokemon) {
+				listener.onPokemonAppeared(api, pokemon);
+			}
+			for (CatchablePokemon pokemon : despawnedPokemon) {
+				listener.onPokemonDespawned(api, pokemon);
+			}
+			for (Pokestop pokestop : luresAdded) {
+				listener.onLureAdded(api, pokestop);
+			}
+			for (Pokestop pokestop : luresExpired) {
+				listener.onLureExpired(api, pokestop);
+			}
+			for (Raid raid : raidsStarted) {
+				listener.onRaidStarted(api, raid);
+			}
+			for (int i = 0; i < gymTeamChanges.size(); i++) {
+				listener.onGymTeamChanged(api, gymTeamChanges.get(i), previousTeams.get(i));
+			}
+			for (Fort fort : cooldownsEnded) {
+				listener.onFortCooldownEnded(api, fort);
+			}
+		}
+	}
+}
@@ -31,12 +31,65 @@ import com.pokegoapi.api.map.pokemon.CatchablePokemon;
 import com.pokegoapi.api.map.pokemon.NearbyPokemon;
 import lombok.Getter;
 
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.HashSet;
 import java.util.List;
 import java.util.Set;
 
+/**
+ * A snapshot of all objects on the map. Snapshots are filled while being built by {@link Map}, and are
+ * immutable once published: map updates and incense pokemon result in a new snapshot.
+ * The raw protos are kept and wrapper objects are only created for a category when it is first accessed.
+ */
 public class MapObjects {
-	private PokemonGo api;
+	private final PokemonGo api;
+
+	/**
+	 * The version of this snapshot, incremented for every snapshot published by the map
+	 */
+	@Getter
+	private long version;
+	private boolean sealed;
+
+	private final Set<NearbyPokemon> nearby = new HashSet<>();
+	private final Set<CatchablePokemon> pokemon = new HashSet<>();
+	private final Set<Point> spawnpoints = new HashSet<>();
+	private final Set<Point> decimatedSpawnPoints = new HashSet<>();
+	private final Set<Pokestop> pokestops = new HashSet<>();
+	private final Set<Gym> gyms = new HashSet<>();
+	private final Set<Raid> raids = new HashSet<>();
+
+	private final Set<NearbyPokemon> nearbyView = Collections.unmodifiableSet(nearby);
+	private final Set<Point> spawnpointsView = Collections.unmodifiableSet(spawnpoints);
+	private final Set<Point> decimatedSpawnPointsView = Collections.unmodifiableSet(decimatedSpawnPoints);
+	private final Set<Pokestop> pokestopsView = Collections.unmodifiableSet(pokestops);
+	private final Set<Gym> gymsView = Collections.unmodifiableSet(gyms);
+	private final Set<Raid> raidsView = Collections.unmodifiableSet(raids);
+
+	private final HashMap<String, Pokestop> pokestopsById = new HashMap<>();
+	private final HashMap<String, Gym> gymsById = new HashMap<>();
+
+	private final List<List<NearbyPokemonOuterClass.NearbyPokemon>> rawNearby = new ArrayList<>();
+	private final List<List<MapPokemon>> rawMapPokemon = new ArrayList<>();
+	private final List<List<WildPokemon>> rawWildPokemon = new ArrayList<>();
+	private final List<List<SpawnPoint>> rawSpawnpoints = new ArrayList<>();
+	private final List<List<SpawnPoint>> rawDecimatedSpawnPoints = new ArrayList<>();
+	private final List<List<FortData>> rawForts = new ArrayList<>();
+
+	private volatile boolean nearbyLoaded;
+	private volatile boolean pokemonLoaded;
+	private volatile boolean spawnpointsLoaded;
+	private volatile boolean decimatedSpawnPointsLoaded;
+	private volatile boolean fortsLoaded;
+
+	private SpatialIndex<Pokestop> pokestopIndex;
+	private SpatialIndex<Gym> gymIndex;
+	private SpatialIndex<CatchablePokemon> pokemonIndex;
+	private ExpiryIndex expiryIndex;
+
+	private volatile VisiblePokemon visiblePokemon;
 
 	/**
 	 * Creates a MapObjects object
@@ -47,85 +100,127 @@ public class MapObjects {
 		this.api = api;
 	}
 
-	@Getter
-	private Set<NearbyPokemon> nearby = new HashSet<>();
-	private Set<CatchablePokemon> pokemon = new HashSet<>();
-	@Getter
-	private Set<Point> spawnpoints = new HashSet<>();
-	@Getter
-	private Set<Point> decimatedSpawnPoints = new HashSet<>();
-	@Getter
-	private Set<Pokestop> pokestops = new HashSet<>();
-	@Getter
-	private Set<Gym> gyms = new HashSet<>();
-	@Getter
-	private Set<Raid> raids = new HashSet<>();
-
 	/**
-	 * Adds the given nearby pokemon to this object
+	 * Adds the given nearby pokemon to this object. Wrappers are created when nearby pokemon are first accessed.
 	 *
 	 * @param nearby the nearby protos
 	 */
 	public void addNearby(List<NearbyPokemonOuterClass.NearbyPokemon> nearby) {
-		for (NearbyPokemonOuterClass.NearbyPokemon nearbyPokemon : nearby) {
-			this.nearby.add(new NearbyPokemon(nearbyPokemon));
+		checkMutable();
+		rawNearby.add(nearby);
+		if (nearbyLoaded) {
+			loadNearby(nearby);
 		}
 	}
 
 	/**
-	 * Adds the given pokemon to this object
+	 * Adds the given pokemon to this object. Wrappers are created when pokemon are first accessed.
 	 *
 	 * @param mapPokemon the map pokemon protos
 	 */
 	public void addMapPokemon(List<MapPokemon> mapPokemon) {
-		for (MapPokemon pokemon : mapPokemon) {
-			this.pokemon.add(new CatchablePokemon(api, pokemon));
+		checkMutable();
+		rawMapPokemon.add(mapPokemon);
+		if (pokemonLoaded) {
+			loadMapPokemon(mapPokemon);
 		}
 	}
 
 	/**
-	 * Adds the given pokemon to this object
+	 * Adds the given pokemon to this object. Wrappers are created when pokemon are first accessed.
 	 *
 	 * @param wildPokemon the wild pokemon protos
 	 */
 	public void addWildPokemon(List<WildPokemon> wildPokemon) {
-		for (WildPokemon pokemon : wildPokemon) {
-			this.pokemon.add(new CatchablePokemon(api, pokemon));
+		checkMutable();
+		rawWildPokemon.add(wildPokemon);
+		if (pokemonLoaded) {
+			loadWildPokemon(wildPokemon);
 		}
 	}
 
 	/**
-	 * Adds the given spawnpoints to this object
+	 * Adds the given spawnpoints to this object. Wrappers are created when spawnpoints are first accessed.
 	 *
 	 * @param spawnPoints the spawnpoint protos
 	 */
 	public void addSpawnpoints(List<SpawnPoint> spawnPoints) {
-		for (SpawnPoint spawnPoint : spawnPoints) {
-			this.spawnpoints.add(new Point(spawnPoint));
+		checkMutable();
+		rawSpawnpoints.add(spawnPoints);
+		if (spawnpointsLoaded) {
+			loadPoints(spawnPoints, spawnpoints);
 		}
 	}
 
 	/**
-	 * Adds the given decimated spawnpoints to this object
+	 * Adds the given decimated spawnpoints to this object. Wrappers are created when decimated spawnpoints are
+	 * first accessed.
 	 *
 	 * @param spawnPoints the spawnpoint protos
 	 */
 	public void addDecimatedSpawnpoints(List<SpawnPoint> spawnPoints) {
-		for (SpawnPoint spawnPoint : spawnPoints) {
-			this.decimatedSpawnPoints.add(new Point(spawnPoint));
+		checkMutable();
+		rawDecimatedSpawnPoints.add(spawnPoints);
+		if (decimatedSpawnPointsLoaded) {
+			loadPoints(spawnPoints, decimatedSpawnPoints);
 		}
 	}
 
 	/**
-	 * Adds the given forts to this object
+	 * Adds the given forts to this object. Wrappers are created when forts or lured pokemon are first accessed.
 	 *
 	 * @param forts the fort protos
 	 */
 	public void addForts(List<FortData> forts) {
+		checkMutable();
+		rawForts.add(forts);
+		if (fortsLoaded) {
+			loadForts(forts);
+		}
+		if (pokemonLoaded) {
+			loadLuredPokemon(forts);
+		}
+	}
+
+	private void loadNearby(List<NearbyPokemonOuterClass.NearbyPokemon> nearby) {
+		for (NearbyPokemonOuterClass.NearbyPokemon nearbyPokemon : nearby) {
+			this.nearby.add(new NearbyPokemon(nearbyPokemon));
+		}
+	}
+
+	private void loadMapPokemon(List<MapPokemon> mapPokemon) {
+		for (MapPokemon pokemon : mapPokemon) {
+			this.pokemon.add(new CatchablePokemon(api, pokemon));
+		}
+	}
+
+	private void loadWildPokemon(List<WildPokemon> wildPokemon) {
+		for (WildPokemon pokemon : wildPokemon) {
+			this.pokemon.add(new CatchablePokemon(api, pokemon));
+		}
+	}
+
+	private void loadLuredPokemon(List<FortData> forts) {
+		for (FortData fortData : forts) {
+			if (fortData.hasLureInfo()) {
+				this.pokemon.add(new CatchablePokemon(api, fortData));
+			}
+		}
+	}
+
+	private void loadPoints(List<SpawnPoint> spawnPoints, Set<Point> points) {
+		for (SpawnPoint spawnPoint : spawnPoints) {
+			points.add(new Point(spawnPoint));
+		}
+	}
+
+	private void loadForts(List<FortData> forts) {
 		for (FortData fortData : forts) {
 			switch (fortData.getType()) {
 				case CHECKPOINT:
-					this.pokestops.add(new Pokestop(api, fortData));
+					Pokestop pokestop = new Pokestop(api, fortData);
+					this.pokestops.add(pokestop);
+					this.pokestopsById.put(pokestop.getId(), pokestop);
 					break;
 				case GYM:
 					Gym gym = new Gym(api, fortData);
@@ -133,12 +228,81 @@ public class MapObjects {
 						this.raids.add(new Raid(api, gym, fortData.getRaidInfo()));
 					}
 					this.gyms.add(gym);
+					this.gymsById.put(gym.getId(), gym);
 					break;
 				default:
 					break;
 			}
-			if (fortData.hasLureInfo()) {
-				this.pokemon.add(new CatchablePokemon(api, fortData));
+		}
+	}
+
+	private void ensureNearby() {
+		if (!nearbyLoaded) {
+			synchronized (this) {
+				if (!nearbyLoaded) {
+					for (List<NearbyPokemonOuterClass.NearbyPokemon> nearby : rawNearby) {
+						loadNearby(nearby);
+					}
+					nearbyLoaded = true;
+				}
+			}
+		}
+	}
+
+	private void ensurePokemon() {
+		if (!pokemonLoaded) {
+			synchronized (this) {
+				if (!pokemonLoaded) {
+					for (List<MapPokemon> mapPokemon : rawMapPokemon) {
+						loadMapPokemon(mapPokemon);
+					}
+					for (List<WildPokemon> wildPokemon : rawWildPokemon) {
+						loadWildPokemon(wildPokemon);
+					}
+					for (List<FortData> forts : rawForts) {
+						loadLuredPokemon(forts);
+					}
+					pokemonLoaded = true;
+				}
+			}
+		}
+	}
+
+	private void ensureSpawnpoints() {
+		if (!spawnpointsLoaded) {
+			synchronized (this) {
+				if (!spawnpointsLoaded) {
+					for (List<SpawnPoint> spawnPoints : rawSpawnpoints) {
+						loadPoints(spawnPoints, spawnpoints);
+					}
+					spawnpointsLoaded = true;
+				}
+			}
+		}
+	}
+
+	private void ensureDecimatedSpawnPoints() {
+		if (!decimatedSpawnPointsLoaded) {
+			synchronized (this) {
+				if (!decimatedSpawnPointsLoaded) {
+					for (List<SpawnPoint> spawnPoints : rawDecimatedSpawnPoints) {
+						loadPoints(spawnPoints, decimatedSpawnPoints);
+					}
+					decimatedSpawnPointsLoaded = true;
+				}
+			}
+		}
+	}
+
+	private void ensureForts() {
+		if (!fortsLoaded) {
+			synchronized (this) {
+				if (!fortsLoaded) {
+					for (List<FortData> forts : rawForts) {
+						loadForts(forts);
+					}
+					fortsLoaded = true;
+				}
 			}
 		}
 	}
@@ -149,6 +313,7 @@ public class MapObjects {
 	 * @param response the response containing the incense pokemon, if any
 	 */
 	public void addIncensePokemon(GetIncensePokemonResponse response) {
+		checkMutable();
 		if (response.getResult() == Result.INCENSE_ENCOUNTER_AVAILABLE) {
 			this.pokemon.add(new CatchablePokemon(api, response));
 		}
@@ -169,16 +334,188 @@ public class MapObjects {
 	}
 
 	/**
+	 * Seals this snapshot before it is published, after which it can no longer be modified
+	 *
+	 * @param version the version of this snapshot
+	 */
+	void seal(long version) {
+		this.version = version;
+		this.sealed = true;
+	}
+
+	/**
+	 * @return true if this snapshot has been published and can no longer be modified
+	 */
+	public boolean isSealed() {
+		return sealed;
+	}
+
+	/**
+	 * Creates a copy of this snapshot including the incense pokemon from the given response
+	 *
+	 * @param response the response containing the incense pokemon, if any
+	 * @return a new unsealed snapshot, or this snapshot if the response has no new incense pokemon
+	 */
+	MapObjects withIncensePokemon(GetIncensePokemonResponse response) {
+		if (response.getResult() != Result.INCENSE_ENCOUNTER_AVAILABLE) {
+			return this;
+		}
+		CatchablePokemon incense = new CatchablePokemon(api, response);
+		ensurePokemon();
+		MapObjects copy = new MapObjects(api);
+		synchronized (this) {
+			if (pokemon.contains(incense)) {
+				return this;
+			}
+			copy.rawNearby.addAll(rawNearby);
+			copy.rawMapPokemon.addAll(rawMapPokemon);
+			copy.rawWildPokemon.addAll(rawWildPokemon);
+			copy.rawSpawnpoints.addAll(rawSpawnpoints);
+			copy.rawDecimatedSpawnPoints.addAll(rawDecimatedSpawnPoints);
+			copy.rawForts.addAll(rawForts);
+			copy.nearby.addAll(nearby);
+			copy.pokemon.addAll(pokemon);
+			copy.spawnpoints.addAll(spawnpoints);
+			copy.decimatedSpawnPoints.addAll(decimatedSpawnPoints);
+			copy.pokestops.addAll(pokestops);
+			copy.gyms.addAll(gyms);
+			copy.raids.addAll(raids);
+			copy.pokestopsById.putAll(pokestopsById);
+			copy.gymsById.putAll(gymsById);
+			copy.nearbyLoaded = nearbyLoaded;
+			copy.pokemonLoaded = pokemonLoaded;
+			copy.spawnpointsLoaded = spawnpointsLoaded;
+			copy.decimatedSpawnPointsLoaded = decimatedSpawnPointsLoaded;
+			copy.fortsLoaded = fortsLoaded;
+			copy.pokestopIndex = pokestopIndex;
+			copy.gymIndex = gymIndex;
+		}
+		copy.pokemon.add(incense);
+		return copy;
+	}
+
+	private void checkMutable() {
+		if (sealed) {
+			throw new IllegalStateException("MapObjects cannot be modified once published");
+		}
+	}
+
+	/**
+	 * @return all nearby pokemon
+	 */
+	public Set<NearbyPokemon> getNearby() {
+		ensureNearby();
+		return nearbyView;
+	}
+
+	/**
+	 * @return all spawnpoints
+	 */
+	public Set<Point> getSpawnpoints() {
+		ensureSpawnpoints();
+		return spawnpointsView;
+	}
+
+	/**
+	 * @return all decimated spawnpoints
+	 */
+	public Set<Point> getDecimatedSpawnPoints() {
+		ensureDecimatedSpawnPoints();
+		return decimatedSpawnPointsView;
+	}
+
+	/**
+	 * @return all pokestops
+	 */
+	public Set<Pokestop> getPokestops() {
+		ensureForts();
+		return pokestopsView;
+	}
+
+	/**
+	 * @return all gyms
+	 */
+	public Set<Gym> getGyms() {
+		ensureForts();
+		return gymsView;
+	}
+
+	/**
+	 * @return all raids
+	 */
+	public Set<Raid> getRaids() {
+		ensureForts();
+		return raidsView;
+	}
+
+	/**
+	 * Gets all visible pokemon on the map. The returned set is shared until a pokemon expires or despawns.
+	 *
 	 * @return a set of all visible pokemon on the map
 	 */
 	public Set<CatchablePokemon> getPokemon() {
-		Set<CatchablePokemon> pokemon = new HashSet<>();
-		for (CatchablePokemon catchable : this.pokemon) {
-			long expirationTime = catchable.getExpirationTimestampMs();
-			if ((expirationTime == -1 || api.currentTimeMillis() < expirationTime) && !catchable.isDespawned()) {
-				pokemon.add(catchable);
+		long time = api.currentTimeMillis();
+		VisiblePokemon visible = visiblePokemon;
+		if (visible == null || !visible.isValid(time)) {
+			visible = new VisiblePokemon(getExpiryIndex(), time);
+			if (sealed) {
+				visiblePokemon = visible;
 			}
 		}
+		return visible.pokemon;
+	}
+
+	/**
+	 * @return an index over all catchable pokemon, ordered by expiration time
+	 */
+	public ExpiryIndex getExpiryIndex() {
+		ExpiryIndex index = expiryIndex;
+		if (index == null) {
+			ensurePokemon();
+			index = new ExpiryIndex(pokemon);
+			if (sealed) {
+				expiryIndex = index;
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * Gets the visible pokemon that expire within the given window, soonest first
+	 *
+	 * @param window the window in milliseconds
+	 * @return the pokemon expiring within the window
+	 */
+	public List<CatchablePokemon> getPokemonExpiringWithin(long window) {
+		return getExpiryIndex().getExpiringWithin(api.currentTimeMillis(), window);
+	}
+
+	/**
+	 * Gets the time at which the next visible pokemon or active lure in this snapshot expires
+	 *
+	 * @return the next expiration time, or {@link Long#MAX_VALUE} if nothing is due to expire
+	 */
+	public long getNextExpiration() {
+		long time = api.currentTimeMillis();
+		long next = getExpiryIndex().getNextExpiration(time);
+		for (List<FortData> forts : rawForts) {
+			for (FortData fortData : forts) {
+				if (fortData.hasLureInfo()) {
+					long expirationTime = fortData.getLureInfo().getLureExpiresTimestampMs();
+					if (expirationTime > time) {
+						next = Math.min(next, expirationTime);
+					}
+				}
+			}
+		}
+		return next;
+	}
+
+	/**
+	 * @return all catchable pokemon in this snapshot, including expired and despawned pokemon
+	 */
+	Set<CatchablePokemon> getAllPokemon() {
+		ensurePokemon();
 		return pokemon;
 	}
 
@@ -189,12 +526,8 @@ public class MapObjects {
 	 * @return the pokestop with the requested ID, null if none with that ID are visible
 	 */
 	public Pokestop getPokestop(String id) {
-		for (Pokestop pokestop : pokestops) {
-			if (pokestop.getId().equals(id)) {
-				return pokestop;
-			}
-		}
-		return null;
+		ensureForts();
+		return pokestopsById.get(id);
 	}
 
 	/**
@@ -204,11 +537,130 @@ public class MapObjects {
 	 * @return the gym with the requested ID, null if none with that ID are visible
 	 */
 	public Gym getGym(String id) {
-		for (Gym gym : gyms) {
-			if (gym.getId().equals(id)) {
-				return gym;
+		ensureForts();
+		return gymsById.get(id);
+	}
+
+	/**
+	 * @return a spatial index over all pokestops
+	 */
+	public SpatialIndex<Pokestop> getPokestopIndex() {
+		SpatialIndex<Pokestop> index = pokestopIndex;
+		if (index == null) {
+			ensureForts();
+			index = new SpatialIndex<>(pokestops);
+			if (sealed) {
+				pokestopIndex = index;
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * @return a spatial index over all gyms
+	 */
+	public SpatialIndex<Gym> getGymIndex() {
+		SpatialIndex<Gym> index = gymIndex;
+		if (index == null) {
+			ensureForts();
+			index = new SpatialIndex<>(gyms);
+			if (sealed) {
+				gymIndex = index;
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * @return a spatial index over all catchable pokemon, including pokemon that have expired since being indexed
+	 */
+	public SpatialIndex<CatchablePokemon> getPokemonIndex() {
+		SpatialIndex<CatchablePokemon> index = pokemonIndex;
+		if (index == null) {
+			ensurePokemon();
+			index = new SpatialIndex<>(pokemon);
+			if (sealed) {
+				pokemonIndex = index;
+			}
+		}
+		return index;
+	}
+
+	/**
+	 * @return all pokestops within interaction range of the player
+	 */
+	public List<Pokestop> getPokestopsInRange() {
+		return getPokestopIndex().getWithin(api.getLatitude(), api.getLongitude(), getInteractionRange());
+	}
+
+	/**
+	 * @return all gyms within interaction range of the player
+	 */
+	public List<Gym> getGymsInRange() {
+		return getGymIndex().getWithin(api.getLatitude(), api.getLongitude(), getInteractionRange());
+	}
+
+	/**
+	 * Gets all visible pokemon within the given radius of the player
+	 *
+	 * @param radius the radius in meters
+	 * @return all visible pokemon within the given radius
+	 */
+	public List<CatchablePokemon> getPokemonWithin(double radius) {
+		List<CatchablePokemon> within = getPokemonIndex().getWithin(api.getLatitude(), api.getLongitude(), radius);
+		List<CatchablePokemon> visible = new ArrayList<>(within.size());
+		long time = api.currentTimeMillis();
+		for (CatchablePokemon catchable : within) {
+			if (isVisible(catchable, time)) {
+				visible.add(catchable);
+			}
+		}
+		return visible;
+	}
+
+	private double getInteractionRange() {
+		return api.getSettings().getFortSettings().getInteractionRangeInMeters();
+	}
+
+	private static boolean isVisible(CatchablePokemon catchable, long time) {
+		long expirationTime = catchable.getExpirationTimestampMs();
+		return (expirationTime == -1 || time < expirationTime) && !catchable.isDespawned();
+	}
+
+	/**
+	 * The visible pokemon at a point in time, valid until the first of them expires or despawns
+	 */
+	private static final class VisiblePokemon {
+		private final Set<CatchablePokemon> pokemon;
+		private final long validUntil;
+
+		private VisiblePokemon(ExpiryIndex index, long time) {
+			Set<CatchablePokemon> visible = new HashSet<>();
+			long validUntil;
+			synchronized (index) {
+				int size = index.evict(time);
+				for (int i = 0; i < size; i++) {
+					CatchablePokemon catchable = index.get(i);
+					if (!catchable.isDespawned()) {
+						visible.add(catchable);
+					}
+				}
+				validUntil = index.getNextExpiration(time);
+			}
+			this.pokemon = Collections.unmodifiableSet(visible);
+			this.validUntil = validUntil;
+		}
+
+		private boolean isValid(long time) {
+			if (time >= validUntil) {
+				return false;
+			}
+			for (CatchablePokemon catchable : pokemon) {
+				if (catchable.isDespawned()) {
+					return false;
+				}
 			}
+			return true;
 		}
-		return null;
 	}
 }
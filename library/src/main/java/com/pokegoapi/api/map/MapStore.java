@@ -0,0 +1,426 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pokegoapi.api.map;
+
+import POGOProtos.Map.Fort.FortDataOuterClass.FortData;
+import POGOProtos.Map.Fort.FortTypeOuterClass.FortType;
+import POGOProtos.Map.MapCellOuterClass.MapCell;
+import POGOProtos.Map.SpawnPointOuterClass.SpawnPoint;
+import com.pokegoapi.google.common.geometry.S2CellId;
+import com.pokegoapi.google.common.geometry.S2LatLng;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.Charset;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Persistent store of spawnpoints, decimated spawnpoints and forts, keyed by level 15 cell id.
+ * The store is a memory-mapped file of fixed size records which is read completely when opened, so routing and
+ * scanning can plan before the first map response arrives. A single store can be shared by all accounts in a JVM
+ * through {@link Map#setStore(MapStore)}; reads only take a shared lock.
+ */
+public class MapStore implements Closeable {
+	private static final int MAGIC = 0x504D5331;
+	private static final int FORMAT_VERSION = 1;
+	private static final int HEADER_SIZE = 16;
+	private static final int COUNT_OFFSET = 8;
+
+	private static final int RECORD_SIZE = 128;
+	private static final int KIND_OFFSET = 0;
+	private static final int TYPE_OFFSET = 1;
+	private static final int ID_LENGTH_OFFSET = 2;
+	private static final int CELL_OFFSET = 4;
+	private static final int LATITUDE_OFFSET = 12;
+	private static final int LONGITUDE_OFFSET = 20;
+	private static final int LAST_SEEN_OFFSET = 28;
+	private static final int ID_OFFSET = 36;
+	private static final int MAX_ID_LENGTH = RECORD_SIZE - ID_OFFSET;
+
+	private static final byte KIND_SPAWNPOINT = 0;
+	private static final byte KIND_DECIMATED_SPAWNPOINT = 1;
+	private static final byte KIND_FORT = 2;
+
+	/**
+	 * The last seen time of stored objects is only rewritten once it is older than this, in milliseconds
+	 */
+	public static final long LAST_SEEN_RESOLUTION = 60 * 60 * 1000L;
+
+	private static final int GROWTH = 4096;
+	private static final Charset UTF_8 = Charset.forName("UTF-8");
+
+	private final RandomAccessFile file;
+	private final FileChannel channel;
+	private MappedByteBuffer buffer;
+	private int capacity;
+	private int count;
+
+	private final HashMap<Long, StoredCell> cells = new HashMap<>();
+	private final HashMap<Long, Integer> spawnpointRecords = new HashMap<>();
+	private final HashMap<Long, Integer> decimatedRecords = new HashMap<>();
+	private final HashMap<String, Integer> fortRecords = new HashMap<>();
+	private final HashMap<String, StoredFort> forts = new HashMap<>();
+
+	private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+	/**
+	 * Opens or creates a store in the given file
+	 *
+	 * @param file the store file
+	 * @throws IOException if the file could not be opened or is not a valid store
+	 */
+	public MapStore(File file) throws IOException {
+		this.file = new RandomAccessFile(file, "rw");
+		this.channel = this.file.getChannel();
+		try {
+			if (channel.size() < HEADER_SIZE) {
+				map(GROWTH);
+				buffer.putInt(0, MAGIC);
+				buffer.putInt(4, FORMAT_VERSION);
+				buffer.putInt(COUNT_OFFSET, 0);
+			} else {
+				map((channel.size() - HEADER_SIZE) / RECORD_SIZE);
+				if (buffer.getInt(0) != MAGIC || buffer.getInt(4) != FORMAT_VERSION) {
+					throw new IOException("Not a map store: " + file);
+				}
+				load(buffer.getInt(COUNT_OFFSET));
+			}
+		} catch (IOException e) {
+			this.file.close();
+			throw e;
+		}
+	}
+
+	private void map(long records) throws IOException {
+		long size = HEADER_SIZE + records * RECORD_SIZE;
+		if (size > Integer.MAX_VALUE) {
+			throw new IOException("Map store is larger than a mapped buffer can hold: " + size + " bytes");
+		}
+		buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+		capacity = (int) records;
+	}
+
+	/**
+	 * Gets the position of a record in the mapped buffer
+	 *
+	 * @param record the record
+	 * @return the position of the first byte of the record
+	 * @throws IOException if the record is outside of the mapped buffer
+	 */
+	private int getPosition(int record) throws IOException {
+		long position = HEADER_SIZE + (long) record * RECORD_SIZE;
+		if (record < 0 || position + RECORD_SIZE > buffer.capacity()) {
+			throw new IOException("Map store record " + record + " is out of range");
+		}
+		return (int) position;
+	}
+
+	private void load(int records) throws IOException {
+		if (records > capacity) {
+			throw new IOException("Map store is truncated");
+		}
+		byte[] idBytes = new byte[MAX_ID_LENGTH];
+		for (int record = 0; record < records; record++) {
+			int position = getPosition(record);
+			byte kind = buffer.get(position + KIND_OFFSET);
+			long cellId = buffer.getLong(position + CELL_OFFSET);
+			double latitude = buffer.getDouble(position + LATITUDE_OFFSET);
+			double longitude = buffer.getDouble(position + LONGITUDE_OFFSET);
+			StoredCell cell = getOrCreateCell(cellId);
+			if (kind == KIND_FORT) {
+				int idLength = buffer.getShort(position + ID_LENGTH_OFFSET);
+				for (int i = 0; i < idLength; i++) {
+					idBytes[i] = buffer.get(position + ID_OFFSET + i);
+				}
+				String id = new String(idBytes, 0, idLength, UTF_8);
+				FortType type = FortType.forNumber(buffer.get(position + TYPE_OFFSET));
+				long lastSeen = buffer.getLong(position + LAST_SEEN_OFFSET);
+				StoredFort fort = new StoredFort(id, cellId, latitude, longitude, type, lastSeen);
+				putFort(fort, cell);
+				fortRecords.put(id, record);
+			} else {
+				long key = getKey(latitude, longitude);
+				Point point = new Point(latitude, longitude);
+				if (kind == KIND_SPAWNPOINT) {
+					cell.spawnpoints.put(key, point);
+					spawnpointRecords.put(key, record);
+				} else {
+					cell.decimatedSpawnpoints.put(key, point);
+					decimatedRecords.put(key, record);
+				}
+			}
+		}
+		count = records;
+	}
+
+	/**
+	 * Stores the new and changed spawnpoints and forts of the given cell. Objects that are already stored with the
+	 * same position, type and id are skipped, apart from refreshing their last seen time once it is older than
+	 * {@link #LAST_SEEN_RESOLUTION}.
+	 *
+	 * @param mapCell the cell, as received from the server
+	 * @param time the time the cell was received
+	 * @throws IOException if the store could not be written
+	 */
+	public void update(MapCell mapCell, long time) throws IOException {
+		if (mapCell.getSpawnPointsCount() == 0 && mapCell.getDecimatedSpawnPointsCount() == 0
+				&& mapCell.getFortsCount() == 0) {
+			return;
+		}
+		long cellId = mapCell.getS2CellId();
+		long[] spawnpointKeys = getKeys(mapCell.getSpawnPointsList());
+		long[] decimatedKeys = getKeys(mapCell.getDecimatedSpawnPointsList());
+		lock.writeLock().lock();
+		try {
+			StoredCell cell = getOrCreateCell(cellId);
+			List<SpawnPoint> spawnPoints = mapCell.getSpawnPointsList();
+			for (int i = 0; i < spawnpointKeys.length; i++) {
+				addSpawnpoint(cell.spawnpoints, spawnpointRecords, KIND_SPAWNPOINT, cellId, spawnpointKeys[i],
+						spawnPoints.get(i), time);
+			}
+			List<SpawnPoint> decimatedSpawnPoints = mapCell.getDecimatedSpawnPointsList();
+			for (int i = 0; i < decimatedKeys.length; i++) {
+				addSpawnpoint(cell.decimatedSpawnpoints, decimatedRecords, KIND_DECIMATED_SPAWNPOINT, cellId,
+						decimatedKeys[i], decimatedSpawnPoints.get(i), time);
+			}
+			for (FortData fortData : mapCell.getFortsList()) {
+				addFort(cell, cellId, fortData, time);
+			}
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	private void addSpawnpoint(HashMap<Long, Point> points, HashMap<Long, Integer> records, byte kind, long cellId,
+			long key, SpawnPoint spawnPoint, long time) throws IOException {
+		Integer record = records.get(key);
+		if (record == null) {
+			points.put(key, new Point(spawnPoint));
+			record = append();
+			records.put(key, record);
+			write(record, kind, cellId, spawnPoint.getLatitude(), spawnPoint.getLongitude(), time);
+		} else {
+			int position = getPosition(record);
+			if (time - buffer.getLong(position + LAST_SEEN_OFFSET) >= LAST_SEEN_RESOLUTION) {
+				buffer.putLong(position + LAST_SEEN_OFFSET, time);
+			}
+		}
+	}
+
+	private void addFort(StoredCell cell, long cellId, FortData fortData, long time) throws IOException {
+		String id = fortData.getId();
+		StoredFort previous = forts.get(id);
+		Integer record = fortRecords.get(id);
+		if (previous != null && record != null && previous.getCellId() == cellId
+				&& previous.getLatitude() == fortData.getLatitude()
+				&& previous.getLongitude() == fortData.getLongitude() && previous.getType() == fortData.getType()) {
+			if (time - previous.getLastSeen() >= LAST_SEEN_RESOLUTION) {
+				putFort(new StoredFort(id, cellId, previous.getLatitude(), previous.getLongitude(),
+						previous.getType(), time), cell);
+				buffer.putLong(getPosition(record) + LAST_SEEN_OFFSET, time);
+			}
+			return;
+		}
+		byte[] idBytes = id.getBytes(UTF_8);
+		if (idBytes.length > MAX_ID_LENGTH) {
+			return;
+		}
+		if (previous != null && previous.getCellId() != cellId) {
+			StoredCell previousCell = cells.get(previous.getCellId());
+			if (previousCell != null) {
+				previousCell.forts.remove(id);
+			}
+		}
+		StoredFort fort = new StoredFort(id, cellId, fortData.getLatitude(), fortData.getLongitude(),
+				fortData.getType(), time);
+		putFort(fort, cell);
+		if (record == null) {
+			record = append();
+			fortRecords.put(id, record);
+		}
+		int position = write(record, KIND_FORT, cellId, fort.getLatitude(), fort.getLongitude(), time);
+		buffer.put(position + TYPE_OFFSET, (byte) fortData.getTypeValue());
+		buffer.putShort(position + ID_LENGTH_OFFSET, (short) idBytes.length);
+		for (int i = 0; i < idBytes.length; i++) {
+			buffer.put(position + ID_OFFSET + i, idBytes[i]);
+		}
+	}
+
+	private static long[] getKeys(List<SpawnPoint> spawnPoints) {
+		long[] keys = new long[spawnPoints.size()];
+		for (int i = 0; i < keys.length; i++) {
+			SpawnPoint spawnPoint = spawnPoints.get(i);
+			keys[i] = getKey(spawnPoint.getLatitude(), spawnPoint.getLongitude());
+		}
+		return keys;
+	}
+
+	private void putFort(StoredFort fort, StoredCell cell) {
+		forts.put(fort.getId(), fort);
+		cell.forts.put(fort.getId(), fort);
+	}
+
+	private int append() throws IOException {
+		if (count == capacity) {
+			map((long) capacity + GROWTH);
+		}
+		int record = count++;
+		buffer.putInt(COUNT_OFFSET, count);
+		return record;
+	}
+
+	private int write(int record, byte kind, long cellId, double latitude, double longitude, long time)
+			throws IOException {
+		int position = getPosition(record);
+		buffer.put(position + KIND_OFFSET, kind);
+		buffer.putLong(position + CELL_OFFSET, cellId);
+		buffer.putDouble(position + LATITUDE_OFFSET, latitude);
+		buffer.putDouble(position + LONGITUDE_OFFSET, longitude);
+		buffer.putLong(position + LAST_SEEN_OFFSET, time);
+		return position;
+	}
+
+	private StoredCell getOrCreateCell(long cellId) {
+		StoredCell cell = cells.get(cellId);
+		if (cell == null) {
+			cell = new StoredCell();
+			cells.put(cellId, cell);
+		}
+		return cell;
+	}
+
+	private static long getKey(double latitude, double longitude) {
+		return S2CellId.fromLatLng(S2LatLng.fromDegrees(latitude, longitude)).id();
+	}
+
+	/**
+	 * @return the ids of all cells with stored objects
+	 */
+	public Set<Long> getCellIds() {
+		lock.readLock().lock();
+		try {
+			return new HashSet<>(cells.keySet());
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Gets the stored spawnpoints of the given cell
+	 *
+	 * @param cellId the level 15 cell id
+	 * @return the spawnpoints
+	 */
+	public List<Point> getSpawnpoints(long cellId) {
+		lock.readLock().lock();
+		try {
+			StoredCell cell = cells.get(cellId);
+			return cell != null ? new ArrayList<>(cell.spawnpoints.values()) : new ArrayList<Point>();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Gets the stored decimated spawnpoints of the given cell
+	 *
+	 * @param cellId the level 15 cell id
+	 * @return the decimated spawnpoints
+	 */
+	public List<Point> getDecimatedSpawnpoints(long cellId) {
+		lock.readLock().lock();
+		try {
+			StoredCell cell = cells.get(cellId);
+			return cell != null ? new ArrayList<>(cell.decimatedSpawnpoints.values()) : new ArrayList<Point>();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Gets the stored forts of the given cell
+	 *
+	 * @param cellId the level 15 cell id
+	 * @return the forts
+	 */
+	public List<StoredFort> getForts(long cellId) {
+		lock.readLock().lock();
+		try {
+			StoredCell cell = cells.get(cellId);
+			return cell != null ? new ArrayList<>(cell.forts.values()) : new ArrayList<StoredFort>();
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Gets a stored fort by its id
+	 *
+	 * @param id the fort id
+	 * @return the fort, or null if it is not stored
+	 */
+	public StoredFort getFort(String id) {
+		lock.readLock().lock();
+		try {
+			return forts.get(id);
+		} finally {
+			lock.readLock().unlock();
+		}
+	}
+
+	/**
+	 * Writes all changes to disk
+	 */
+	public void flush() {
+		lock.writeLock().lock();
+		try {
+			buffer.force();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	@Override
+	public void close() throws IOException {
+		lock.writeLock().lock();
+		try {
+			buffer.force();
+			file.close();
+		} finally {
+			lock.writeLock().unlock();
+		}
+	}
+
+	/**
+	 * The objects stored for a single cell
+	 */
+	private static final class StoredCell {
+		private final LinkedHashMap<Long, Point> spawnpoints = new LinkedHashMap<>();
+		private final LinkedHashMap<Long, Point> decimatedSpawnpoints = new LinkedHashMap<>();
+		private final LinkedHashMap<String, StoredFort> forts = new LinkedHashMap<>();
+	}
+}
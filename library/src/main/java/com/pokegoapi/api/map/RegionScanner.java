@@ -0,0 +1,289 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pokegoapi.api.map;
+
+import com.pokegoapi.api.PokemonGo;
+import com.pokegoapi.exceptions.request.RequestFailedException;
+import com.pokegoapi.google.common.geometry.S1Angle;
+import com.pokegoapi.google.common.geometry.S2Cap;
+import com.pokegoapi.google.common.geometry.S2CellId;
+import com.pokegoapi.google.common.geometry.S2LatLng;
+import com.pokegoapi.google.common.geometry.S2LatLngRect;
+import com.pokegoapi.google.common.geometry.S2Region;
+import com.pokegoapi.google.common.geometry.S2RegionCoverer;
+import com.pokegoapi.util.Log;
+import lombok.Getter;
+import lombok.Setter;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+/**
+ * Scans a region by moving a pool of logged in accounts over the level 15 cells covering it.
+ * Each account picks the nearest remaining stop, moves there no faster than the configured speed, waits for the
+ * minimum map refresh interval and requests the cells of that stop. All results are merged into an {@link AreaView}.
+ * The heartbeat of each account is suspended while it scans, so moving between stops sends no other map requests.
+ * Since every scan drives the same accounts, scans run one at a time and concurrent calls wait for their turn.
+ */
+public class RegionScanner {
+	private static final String TAG = RegionScanner.class.getSimpleName();
+
+	/**
+	 * The cell level requested from the server
+	 */
+	public static final int SCAN_LEVEL = 15;
+
+	private static final int MAX_ATTEMPTS = 2;
+
+	private final List<PokemonGo> accounts;
+
+	/**
+	 * The maximum movement speed of each account, in meters per second
+	 */
+	@Getter
+	@Setter
+	private double speed = 8.0;
+
+	/**
+	 * The width, in cells, of the square of cells requested at each stop
+	 */
+	@Getter
+	@Setter
+	private int stopWidth = 3;
+
+	/**
+	 * Creates a scanner using the given logged in accounts
+	 *
+	 * @param accounts the accounts to scan with
+	 */
+	public RegionScanner(List<PokemonGo> accounts) {
+		if (accounts.isEmpty()) {
+			throw new IllegalArgumentException("At least one account is required to scan");
+		}
+		this.accounts = new ArrayList<>(accounts);
+	}
+
+	/**
+	 * Creates a circular region
+	 *
+	 * @param latitude the latitude of the centre
+	 * @param longitude the longitude of the centre
+	 * @param radius the radius in meters
+	 * @return the region
+	 */
+	public static S2Region getCap(double latitude, double longitude, double radius) {
+		return S2Cap.fromAxisAngle(S2LatLng.fromDegrees(latitude, longitude).toPoint(),
+				S1Angle.radians(radius / S2LatLng.EARTH_RADIUS_METERS));
+	}
+
+	/**
+	 * Creates a rectangular region from two opposite corners
+	 *
+	 * @param latitude1 the latitude of the first corner
+	 * @param longitude1 the longitude of the first corner
+	 * @param latitude2 the latitude of the second corner
+	 * @param longitude2 the longitude of the second corner
+	 * @return the region
+	 */
+	public static S2Region getRect(double latitude1, double longitude1, double latitude2, double longitude2) {
+		return S2LatLngRect.fromPointPair(S2LatLng.fromDegrees(latitude1, longitude1),
+				S2LatLng.fromDegrees(latitude2, longitude2));
+	}
+
+	/**
+	 * Computes the minimal covering of the given region with level 15 cells
+	 *
+	 * @param region the region, such as an {@link S2Cap}, {@link S2LatLngRect} or {@link LatLngPolygon}
+	 * @return the ids of the covering cells, in Hilbert curve order
+	 */
+	public static long[] getCovering(S2Region region) {
+		S2RegionCoverer coverer = new S2RegionCoverer();
+		coverer.setMinLevel(SCAN_LEVEL);
+		coverer.setMaxLevel(SCAN_LEVEL);
+		coverer.setMaxCells(Integer.MAX_VALUE);
+		ArrayList<S2CellId> covering = new ArrayList<>();
+		coverer.getCovering(region, covering);
+		long[] cells = new long[covering.size()];
+		for (int i = 0; i < cells.length; i++) {
+			cells[i] = covering.get(i).id();
+		}
+		return cells;
+	}
+
+	/**
+	 * Scans the given region and blocks until all of its cells have been requested
+	 *
+	 * @param region the region to scan
+	 * @return the merged view of the region
+	 * @throws InterruptedException if this thread is interrupted while scanning
+	 */
+	public AreaView scan(S2Region region) throws InterruptedException {
+		AreaView view = new AreaView();
+		scan(region, view);
+		return view;
+	}
+
+	/**
+	 * Scans the given region into an existing view and blocks until all of its cells have been requested
+	 *
+	 * @param region the region to scan
+	 * @param view the view to merge the results into
+	 * @throws InterruptedException if this thread is interrupted while scanning
+	 */
+	public synchronized void scan(S2Region region, final AreaView view) throws InterruptedException {
+		final List<Stop> stops = planStops(getCovering(region));
+		List<Thread> workers = new ArrayList<>();
+		for (final PokemonGo api : accounts) {
+			Thread worker = new Thread(new Runnable() {
+				@Override
+				public void run() {
+					try {
+						scan(api, stops, view);
+					} catch (InterruptedException e) {
+						Thread.currentThread().interrupt();
+					}
+				}
+			});
+			worker.setDaemon(true);
+			worker.setName("Region scanner thread");
+			workers.add(worker);
+			worker.start();
+		}
+		try {
+			for (Thread worker : workers) {
+				worker.join();
+			}
+		} catch (InterruptedException e) {
+			for (Thread worker : workers) {
+				worker.interrupt();
+			}
+			synchronized (stops) {
+				stops.clear();
+			}
+			throw e;
+		}
+	}
+
+	/**
+	 * Groups the given cells into stops, each requesting the covered cells of a square around its centre
+	 *
+	 * @param covering the cells to group
+	 * @return the planned stops
+	 */
+	private List<Stop> planStops(long[] covering) {
+		Set<Long> remaining = new HashSet<>();
+		for (long cell : covering) {
+			remaining.add(cell);
+		}
+		List<Stop> planned = new ArrayList<>();
+		for (long centre : covering) {
+			if (!remaining.contains(centre)) {
+				continue;
+			}
+			long[] neighbourhood = Map.getNeighbourhood(centre, stopWidth);
+			long[] cells = new long[neighbourhood.length];
+			int count = 0;
+			for (long cell : neighbourhood) {
+				if (remaining.remove(cell)) {
+					cells[count++] = cell;
+				}
+			}
+			long[] stopCells = new long[count];
+			System.arraycopy(cells, 0, stopCells, 0, count);
+			planned.add(new Stop(centre, stopCells));
+		}
+		return planned;
+	}
+
+	/**
+	 * Removes and returns the remaining stop nearest to the given location
+	 */
+	private static Stop nextStop(List<Stop> stops, double latitude, double longitude) {
+		synchronized (stops) {
+			int nearest = -1;
+			double nearestDistance = Double.POSITIVE_INFINITY;
+			for (int i = 0; i < stops.size(); i++) {
+				Stop stop = stops.get(i);
+				double distance = Double.isNaN(latitude) || Double.isNaN(longitude) ? 0
+						: SpatialIndex.getDistance(latitude, longitude, stop.latitude, stop.longitude);
+				if (distance < nearestDistance) {
+					nearest = i;
+					nearestDistance = distance;
+				}
+			}
+			return nearest >= 0 ? stops.remove(nearest) : null;
+		}
+	}
+
+	private void scan(PokemonGo api, List<Stop> stops, AreaView view) throws InterruptedException {
+		long lastRequest = api.getHeartbeat().suspend();
+		try {
+			long lastMove = api.currentTimeMillis();
+			Stop stop;
+			while ((stop = nextStop(stops, api.getLatitude(), api.getLongitude())) != null) {
+				long minRefresh = (long) api.getSettings().getMapSettings().getMinRefresh();
+				long arrival = lastMove;
+				if (!Double.isNaN(api.getLatitude()) && !Double.isNaN(api.getLongitude())) {
+					double distance = SpatialIndex.getDistance(api.getLatitude(), api.getLongitude(),
+							stop.latitude, stop.longitude);
+					arrival += (long) (distance / speed * 1000.0);
+				}
+				long ready = lastRequest == Long.MIN_VALUE ? arrival : Math.max(arrival, lastRequest + minRefresh);
+				long delay = ready - api.currentTimeMillis();
+				if (delay > 0) {
+					Thread.sleep(delay);
+				}
+				api.setLocation(stop.latitude, stop.longitude, api.getAltitude());
+				lastMove = api.currentTimeMillis();
+				try {
+					MapObjects mapObjects = api.getMap().requestMapObjects(stop.latitude, stop.longitude, stop.cells);
+					lastRequest = api.currentTimeMillis();
+					view.merge(stop.cells, mapObjects, lastRequest);
+				} catch (RequestFailedException e) {
+					lastRequest = api.currentTimeMillis();
+					if (++stop.attempts < MAX_ATTEMPTS) {
+						synchronized (stops) {
+							stops.add(stop);
+						}
+					} else {
+						Log.e(TAG, "Failed to scan cells around " + stop.latitude + ", " + stop.longitude, e);
+					}
+				}
+			}
+		} finally {
+			api.getHeartbeat().resume();
+		}
+	}
+
+	/**
+	 * A location to request a group of cells from
+	 */
+	private static final class Stop {
+		private final double latitude;
+		private final double longitude;
+		private final long[] cells;
+		private int attempts;
+
+		private Stop(long centre, long[] cells) {
+			S2LatLng location = new S2CellId(centre).toLatLng();
+			this.latitude = location.latDegrees();
+			this.longitude = location.lngDegrees();
+			this.cells = cells;
+		}
+	}
+}
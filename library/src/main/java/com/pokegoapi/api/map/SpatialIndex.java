@@ -0,0 +1,305 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pokegoapi.api.map;
+
+import com.pokegoapi.google.common.geometry.S2LatLng;
+import com.pokegoapi.util.MapPoint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Read-only spatial index over map points, answering nearest and radius queries.
+ * Points are bucketed in a grid of fixed size lat/lng cells, stored in packed primitive arrays,
+ * and distances are compared as chords on the unit sphere.
+ *
+ * @param <T> the type of point indexed
+ */
+public class SpatialIndex<T extends MapPoint> {
+	private static final double CELL_DEGREES = 0.005;
+	private static final int CELLS_PER_CIRCLE = (int) Math.ceil(360.0 / CELL_DEGREES);
+	private static final double METERS_PER_DEGREE = Math.toRadians(S2LatLng.EARTH_RADIUS_METERS);
+
+	private final List<T> items;
+	private final double[] x;
+	private final double[] y;
+	private final double[] z;
+
+	/**
+	 * Grid cell keys in ascending order, the items of cell i are order[starts[i]] until order[starts[i + 1]]
+	 */
+	private final long[] keys;
+	private final int[] starts;
+	private final int[] order;
+
+	/**
+	 * Creates a spatial index over the given points
+	 *
+	 * @param points the points to index
+	 */
+	public SpatialIndex(Collection<T> points) {
+		this.items = new ArrayList<>(points);
+		int size = items.size();
+		this.x = new double[size];
+		this.y = new double[size];
+		this.z = new double[size];
+
+		long[] itemKeys = new long[size];
+		long[] sortable = new long[size];
+		for (int i = 0; i < size; i++) {
+			T item = items.get(i);
+			double latitude = Math.toRadians(item.getLatitude());
+			double longitude = Math.toRadians(item.getLongitude());
+			double cosLatitude = Math.cos(latitude);
+			x[i] = cosLatitude * Math.cos(longitude);
+			y[i] = cosLatitude * Math.sin(longitude);
+			z[i] = Math.sin(latitude);
+			itemKeys[i] = key(latitudeCell(item.getLatitude()), longitudeCell(item.getLongitude()));
+			sortable[i] = itemKeys[i];
+		}
+
+		Arrays.sort(sortable);
+		int cellCount = 0;
+		for (int i = 0; i < size; i++) {
+			if (i == 0 || sortable[i] != sortable[i - 1]) {
+				sortable[cellCount++] = sortable[i];
+			}
+		}
+		this.keys = Arrays.copyOf(sortable, cellCount);
+		this.starts = new int[cellCount + 1];
+		for (int i = 0; i < size; i++) {
+			starts[Arrays.binarySearch(keys, itemKeys[i]) + 1]++;
+		}
+		for (int i = 0; i < cellCount; i++) {
+			starts[i + 1] += starts[i];
+		}
+		this.order = new int[size];
+		int[] next = Arrays.copyOf(starts, cellCount);
+		for (int i = 0; i < size; i++) {
+			order[next[Arrays.binarySearch(keys, itemKeys[i])]++] = i;
+		}
+	}
+
+	/**
+	 * @return the amount of indexed points
+	 */
+	public int size() {
+		return items.size();
+	}
+
+	/**
+	 * @return all indexed points
+	 */
+	public List<T> getAll() {
+		return Collections.unmodifiableList(items);
+	}
+
+	/**
+	 * Gets all points within the given radius of the given location
+	 *
+	 * @param latitude the latitude to search around
+	 * @param longitude the longitude to search around
+	 * @param radius the radius to search in, in meters
+	 * @return all points within the given radius, in no particular order
+	 */
+	public List<T> getWithin(double latitude, double longitude, double radius) {
+		int[] found = new int[items.size()];
+		int count = search(latitude, longitude, radius, found, null);
+		List<T> result = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			result.add(items.get(found[i]));
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the nearest point to the given location
+	 *
+	 * @param latitude the latitude to search around
+	 * @param longitude the longitude to search around
+	 * @return the nearest point, or null if this index is empty
+	 */
+	public T getNearest(double latitude, double longitude) {
+		List<T> nearest = getNearest(latitude, longitude, 1);
+		return nearest.isEmpty() ? null : nearest.get(0);
+	}
+
+	/**
+	 * Gets the given amount of points nearest to the given location
+	 *
+	 * @param latitude the latitude to search around
+	 * @param longitude the longitude to search around
+	 * @param count the maximum amount of points to return
+	 * @return the nearest points, ordered by ascending distance
+	 */
+	public List<T> getNearest(double latitude, double longitude, int count) {
+		int size = items.size();
+		count = Math.min(count, size);
+		if (count <= 0) {
+			return new ArrayList<>();
+		}
+		int[] found = new int[size];
+		double[] chords = new double[size];
+		int foundCount;
+		double radius = CELL_DEGREES * METERS_PER_DEGREE;
+		// Once count points are found within a radius, the nearest count points are all within that radius
+		do {
+			foundCount = search(latitude, longitude, radius, found, chords);
+			radius *= 2;
+		} while (foundCount < count);
+
+		List<T> result = new ArrayList<>(count);
+		for (int i = 0; i < count; i++) {
+			int nearest = i;
+			for (int j = i + 1; j < foundCount; j++) {
+				if (chords[j] < chords[nearest]) {
+					nearest = j;
+				}
+			}
+			int index = found[nearest];
+			double chord = chords[nearest];
+			found[nearest] = found[i];
+			chords[nearest] = chords[i];
+			found[i] = index;
+			chords[i] = chord;
+			result.add(items.get(index));
+		}
+		return result;
+	}
+
+	/**
+	 * Gets the distance between two locations, consistent with the distances used by this index
+	 *
+	 * @param latitude1 the first latitude
+	 * @param longitude1 the first longitude
+	 * @param latitude2 the second latitude
+	 * @param longitude2 the second longitude
+	 * @return the distance in meters
+	 */
+	public static double getDistance(double latitude1, double longitude1, double latitude2, double longitude2) {
+		double lat1 = Math.toRadians(latitude1);
+		double lat2 = Math.toRadians(latitude2);
+		double lng1 = Math.toRadians(longitude1);
+		double lng2 = Math.toRadians(longitude2);
+		double dx = Math.cos(lat1) * Math.cos(lng1) - Math.cos(lat2) * Math.cos(lng2);
+		double dy = Math.cos(lat1) * Math.sin(lng1) - Math.cos(lat2) * Math.sin(lng2);
+		double dz = Math.sin(lat1) - Math.sin(lat2);
+		return chordToMeters(dx * dx + dy * dy + dz * dz);
+	}
+
+	/**
+	 * Finds all points within the given radius
+	 *
+	 * @param latitude the latitude to search around
+	 * @param longitude the longitude to search around
+	 * @param radius the radius in meters
+	 * @param found the array to write the found indices to
+	 * @param chords the array to write the squared chord lengths of found points to, or null
+	 * @return the amount of points found
+	 */
+	private int search(double latitude, double longitude, double radius, int[] found, double[] chords) {
+		double latRadians = Math.toRadians(latitude);
+		double lngRadians = Math.toRadians(longitude);
+		double cosLatitude = Math.cos(latRadians);
+		double px = cosLatitude * Math.cos(lngRadians);
+		double py = cosLatitude * Math.sin(lngRadians);
+		double pz = Math.sin(latRadians);
+		double angle = Math.min(radius / S2LatLng.EARTH_RADIUS_METERS, Math.PI);
+		double maxChord = 2 * Math.sin(angle / 2);
+		maxChord *= maxChord;
+
+		double latitudeSpan = Math.toDegrees(angle);
+		double minLatitude = latitude - latitudeSpan;
+		double maxLatitude = latitude + latitudeSpan;
+
+		int count = 0;
+		long cellsToScan = Long.MAX_VALUE;
+		int minLatCell = latitudeCell(minLatitude);
+		int maxLatCell = latitudeCell(maxLatitude);
+		int minLngCell = 0;
+		int maxLngCell = 0;
+		double sinAngle = Math.sin(angle);
+		if (minLatitude > -90 && maxLatitude < 90 && sinAngle < cosLatitude) {
+			// Largest longitude difference of any point within the radius
+			double longitudeSpan = Math.toDegrees(Math.asin(sinAngle / cosLatitude));
+			minLngCell = (int) Math.floor((longitude - longitudeSpan) / CELL_DEGREES);
+			maxLngCell = (int) Math.floor((longitude + longitudeSpan) / CELL_DEGREES);
+			if (maxLngCell - minLngCell + 1 < CELLS_PER_CIRCLE) {
+				cellsToScan = (long) (maxLatCell - minLatCell + 1) * (maxLngCell - minLngCell + 1);
+			}
+		}
+
+		if (cellsToScan >= keys.length) {
+			// Scanning the grid would touch more cells than exist, check every point instead
+			for (int i = 0; i < items.size(); i++) {
+				count = check(i, px, py, pz, maxChord, found, chords, count);
+			}
+			return count;
+		}
+
+		for (int latCell = minLatCell; latCell <= maxLatCell; latCell++) {
+			for (int lngCell = minLngCell; lngCell <= maxLngCell; lngCell++) {
+				int cell = Arrays.binarySearch(keys, key(latCell, floorMod(lngCell, CELLS_PER_CIRCLE)));
+				if (cell >= 0) {
+					for (int i = starts[cell]; i < starts[cell + 1]; i++) {
+						count = check(order[i], px, py, pz, maxChord, found, chords, count);
+					}
+				}
+			}
+		}
+		return count;
+	}
+
+	private int check(int index, double px, double py, double pz, double maxChord, int[] found, double[] chords,
+			int count) {
+		double dx = x[index] - px;
+		double dy = y[index] - py;
+		double dz = z[index] - pz;
+		double chord = dx * dx + dy * dy + dz * dz;
+		if (chord <= maxChord) {
+			found[count] = index;
+			if (chords != null) {
+				chords[count] = chord;
+			}
+			count++;
+		}
+		return count;
+	}
+
+	private static double chordToMeters(double squaredChord) {
+		return 2 * Math.asin(Math.min(1.0, Math.sqrt(squaredChord) / 2)) * S2LatLng.EARTH_RADIUS_METERS;
+	}
+
+	private static int latitudeCell(double latitude) {
+		return (int) Math.floor(latitude / CELL_DEGREES);
+	}
+
+	private static int longitudeCell(double longitude) {
+		return floorMod((int) Math.floor(longitude / CELL_DEGREES), CELLS_PER_CIRCLE);
+	}
+
+	private static int floorMod(int value, int modulus) {
+		int mod = value % modulus;
+		return mod < 0 ? mod + modulus : mod;
+	}
+
+	private static long key(int latitudeCell, int longitudeCell) {
+		return ((long) latitudeCell << 32) | (longitudeCell & 0xFFFFFFFFL);
+	}
+}
@@ -0,0 +1,57 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pokegoapi.api.map;
+
+import POGOProtos.Map.Fort.FortTypeOuterClass.FortType;
+import com.pokegoapi.util.MapPoint;
+import lombok.Getter;
+
+/**
+ * A fort as remembered by a {@link MapStore}
+ */
+public class StoredFort implements MapPoint {
+	@Getter
+	private final String id;
+	@Getter
+	private final long cellId;
+	@Getter
+	private final double latitude;
+	@Getter
+	private final double longitude;
+	@Getter
+	private final FortType type;
+	@Getter
+	private final long lastSeen;
+
+	StoredFort(String id, long cellId, double latitude, double longitude, FortType type, long lastSeen) {
+		this.id = id;
+		this.cellId = cellId;
+		this.latitude = latitude;
+		this.longitude = longitude;
+		this.type = type;
+		this.lastSeen = lastSeen;
+	}
+
+	@Override
+	public int hashCode() {
+		return id.hashCode();
+	}
+
+	@Override
+	public boolean equals(Object obj) {
+		return obj instanceof StoredFort && ((StoredFort) obj).id.equals(id);
+	}
+}
@@ -32,10 +32,11 @@ import com.google.protobuf.InvalidProtocolBufferException;
 import com.google.protobuf.ProtocolStringList;
 import com.pokegoapi.api.PokemonGo;
 import com.pokegoapi.api.listener.PokestopListener;
+import com.pokegoapi.api.map.SpatialIndex;
 import com.pokegoapi.exceptions.request.RequestFailedException;
-import com.pokegoapi.google.common.geometry.S2LatLng;
 import com.pokegoapi.main.ServerRequest;
 import com.pokegoapi.util.AsyncHelper;
+import com.pokegoapi.util.MapPoint;
 import lombok.Getter;
 import lombok.Setter;
 import rx.Observable;
@@ -47,7 +48,7 @@ import java.util.List;
 /**
  * Created by mjmfighter on 7/20/2016.
  */
-public class Fort {
+public class Fort implements MapPoint {
 	@Getter
 	private final PokemonGo api;
 	@Getter
@@ -74,9 +75,7 @@ public class Fort {
 	 * @return the calculated distance
 	 */
 	public double getDistance() {
-		S2LatLng pokestop = S2LatLng.fromDegrees(getLatitude(), getLongitude());
-		S2LatLng player = S2LatLng.fromDegrees(api.getLatitude(), api.getLongitude());
-		return pokestop.getEarthDistance(player);
+		return SpatialIndex.getDistance(getLatitude(), getLongitude(), api.getLatitude(), api.getLongitude());
 	}
 
 	/**
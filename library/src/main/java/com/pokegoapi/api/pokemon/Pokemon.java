@@ -234,6 +234,7 @@ public class Pokemon extends PokemonDetails {
 						}
 						//set new pokemon details
 						applyProto(response.getUpgradedPokemon());
+						api.getInventories().getPokebank().updatePokemon(Pokemon.this);
 						return response.getResult();
 					}
 				});
@@ -12,6 +12,7 @@ import POGOProtos.Settings.Master.Pokemon.StatsAttributesOuterClass.StatsAttribu
 import POGOProtos.Settings.Master.PokemonSettingsOuterClass;
 import POGOProtos.Settings.Master.PokemonSettingsOuterClass.PokemonSettings;
 import com.pokegoapi.api.PokemonGo;
+import com.google.protobuf.InvalidProtocolBufferException;
 import com.pokegoapi.api.settings.templates.ItemTemplates;
 import com.pokegoapi.exceptions.NoSuchItemException;
 import com.pokegoapi.util.Log;
@@ -30,32 +31,24 @@ public class PokemonDetails {
 	protected PokemonMove move1;
 	protected PokemonMove move2;
 	protected String deployedFortId;
-	protected String ownerName;
 	protected boolean isEgg;
-	protected double eggKmWalkedTarget;
-	protected double eggKmWalkedStart;
-	protected int origin;
-	protected float height;
-	protected float weight;
 	protected int individualAttack;
 	protected int individualDefense;
 	protected int individualStamina;
 	protected float cpMultiplier;
 	protected float additionalCpMultiplier;
-	protected ItemId pokeball;
-	protected long capturedCellId;
-	protected int battlesAttacked;
-	protected int battlesDefended;
-	protected String eggIncubatorId;
-	protected long creationTimeMs;
 	protected int favorite;
 	protected String nickname;
-	protected int fromFort;
-	protected String protoData;
 	protected int numUpgrades;
-	protected PokemonDisplay pokemonDisplay;
-	protected int buddyCandyAwarded;
-	protected float buddyTotalKmWalked;
+
+	/**
+	 * The complete proto, only set when compact pokemon are disabled
+	 */
+	private PokemonData proto;
+	/**
+	 * The serialized proto, only set when compact pokemon are enabled
+	 */
+	private byte[] protoBytes;
 
 	public PokemonDetails(PokemonGo api, PokemonData proto) {
 		this.api = api;
@@ -63,7 +56,10 @@ public class PokemonDetails {
 	}
 
 	/**
-	 * Applies the given PokemonData proto to these PokemonDetails
+	 * Applies the given PokemonData proto to these PokemonDetails. Frequently used fields are copied, all others are
+	 * read from the proto when requested. If {@link PokemonGo#isCompactPokemon()} is enabled, the proto is only
+	 * kept in serialized form and decoded on demand.
+	 *
 	 * @param proto the proto to apply
 	 */
 	public void applyProto(PokemonData proto) {
@@ -74,33 +70,51 @@ public class PokemonDetails {
 		stamina = proto.getStamina();
 		move1 = proto.getMove1();
 		move2 = proto.getMove2();
-		deployedFortId = proto.getDeployedFortId();
-		ownerName = proto.getOwnerName();
+		deployedFortId = intern(proto.getDeployedFortId());
 		isEgg = proto.getIsEgg();
-		eggKmWalkedTarget = proto.getEggKmWalkedTarget();
-		eggKmWalkedStart = proto.getEggKmWalkedStart();
-		origin = proto.getOrigin();
-		height = proto.getHeightM();
-		weight = proto.getWeightKg();
 		individualAttack = proto.getIndividualAttack();
 		individualDefense = proto.getIndividualDefense();
 		individualStamina = proto.getIndividualStamina();
 		cpMultiplier = proto.getCpMultiplier();
 		additionalCpMultiplier = proto.getAdditionalCpMultiplier();
-		pokeball = proto.getPokeball();
-		capturedCellId = proto.getCapturedCellId();
-		battlesAttacked = proto.getBattlesAttacked();
-		battlesDefended = proto.getBattlesDefended();
-		eggIncubatorId = proto.getEggIncubatorId();
-		creationTimeMs = proto.getCreationTimeMs();
 		favorite = proto.getFavorite();
-		nickname = proto.getNickname();
-		fromFort = proto.getFromFort();
+		nickname = intern(proto.getNickname());
 		numUpgrades = proto.getNumUpgrades();
-		pokemonDisplay = proto.getPokemonDisplay();
-		buddyCandyAwarded = proto.getBuddyCandyAwarded();
-		buddyTotalKmWalked = proto.getBuddyTotalKmWalked();
-		protoData = proto.toString();
+		if (api.isCompactPokemon()) {
+			this.protoBytes = proto.toByteArray();
+			this.proto = null;
+		} else {
+			this.proto = proto;
+			this.protoBytes = null;
+		}
+	}
+
+	/**
+	 * Shares equal strings between pokemon, the same fort ids and nicknames are used by many pokemon
+	 *
+	 * @param value the string to share
+	 * @return the shared string
+	 */
+	private static String intern(String value) {
+		return value.isEmpty() ? "" : value.intern();
+	}
+
+	/**
+	 * Gets the proto this pokemon was last updated with, decoding it if compact pokemon are enabled.
+	 * Fields that were changed locally, such as the nickname, are not updated in this proto.
+	 *
+	 * @return the proto of this pokemon
+	 */
+	protected PokemonData getProto() {
+		PokemonData proto = this.proto;
+		if (proto != null) {
+			return proto;
+		}
+		try {
+			return PokemonData.parseFrom(protoBytes);
+		} catch (InvalidProtocolBufferException e) {
+			throw new IllegalStateException("Stored pokemon data is invalid", e);
+		}
 	}
 
 	/**
@@ -155,7 +169,7 @@ public class PokemonDetails {
 	}
 
 	public String getOwnerName() {
-		return ownerName;
+		return getProto().getOwnerName();
 	}
 
 	public boolean isEgg() {
@@ -163,23 +177,23 @@ public class PokemonDetails {
 	}
 
 	public double getEggKmWalkedTarget() {
-		return eggKmWalkedTarget;
+		return getProto().getEggKmWalkedTarget();
 	}
 
 	public double getEggKmWalkedStart() {
-		return eggKmWalkedStart;
+		return getProto().getEggKmWalkedStart();
 	}
 
 	public int getOrigin() {
-		return origin;
+		return getProto().getOrigin();
 	}
 
 	public float getHeightM() {
-		return height;
+		return getProto().getHeightM();
 	}
 
 	public float getWeightKg() {
-		return weight;
+		return getProto().getWeightKg();
 	}
 
 	public int getIndividualAttack() {
@@ -216,27 +230,27 @@ public class PokemonDetails {
 	}
 
 	public ItemId getPokeball() {
-		return pokeball;
+		return getProto().getPokeball();
 	}
 
 	public long getCapturedS2CellId() {
-		return capturedCellId;
+		return getProto().getCapturedCellId();
 	}
 
 	public int getBattlesAttacked() {
-		return battlesAttacked;
+		return getProto().getBattlesAttacked();
 	}
 
 	public int getBattlesDefended() {
-		return battlesDefended;
+		return getProto().getBattlesDefended();
 	}
 
 	public String getEggIncubatorId() {
-		return eggIncubatorId;
+		return getProto().getEggIncubatorId();
 	}
 
 	public long getCreationTimeMs() {
-		return creationTimeMs;
+		return getProto().getCreationTimeMs();
 	}
 
 	/**
@@ -258,11 +272,11 @@ public class PokemonDetails {
 	}
 
 	public boolean getFromFort() {
-		return fromFort > 0;
+		return getProto().getFromFort() > 0;
 	}
 
 	public void debug() {
-		Log.d(TAG, protoData);
+		Log.d(TAG, getProto().toString());
 	}
 
 	public int getBaseStamina() {
@@ -452,20 +466,20 @@ public class PokemonDetails {
 	 * @return Information about Costumes, Shiny and Gender
 	 */
 	public PokemonDisplay getPokemonDisplay() {
-		return pokemonDisplay;
+		return getProto().getPokemonDisplay();
 	}
 
 	/**
 	 * @return The amount of candy awarded by Buddy
 	 */
 	public int getBuddyCandyAwarded() {
-		return buddyCandyAwarded;
+		return getProto().getBuddyCandyAwarded();
 	}
 
 	/**
 	 * @return The amount of km walked by Buddy
 	 */
 	public float getBuddyTotalKmWalked() {
-		return buddyTotalKmWalked;
+		return getProto().getBuddyTotalKmWalked();
 	}
 }
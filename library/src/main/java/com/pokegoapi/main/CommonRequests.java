@@ -95,7 +95,9 @@ public class CommonRequests {
 		if (!api.hasChallenge() || request == RequestType.VERIFY_CHALLENGE) {
 			defaultCommons.add(CommonRequests.checkChallenge());
 		}
-		defaultCommons.add(CommonRequests.getHatchedEggs());
+		if (api.isLoggingIn() || api.getInventories().getHatchery().isHatchedEggsRequestDue()) {
+			defaultCommons.add(CommonRequests.getHatchedEggs());
+		}
 		defaultCommons.add(CommonRequests.getInventory(api));
 		defaultCommons.add(CommonRequests.checkAwardedBadges());
 		if (api.isLoggingIn()) {
@@ -158,7 +160,7 @@ public class CommonRequests {
 		if (response.has(RequestType.GET_INCENSE_POKEMON)) {
 			ByteString data = response.get(RequestType.GET_INCENSE_POKEMON);
 			GetIncensePokemonResponse incense = GetIncensePokemonResponse.parseFrom(data);
-			api.getMap().getMapObjects().addIncensePokemon(incense);
+			api.getMap().addIncensePokemon(incense);
 		}
 	}
 
@@ -18,21 +18,38 @@ package com.pokegoapi.main;
 import com.pokegoapi.api.PokemonGo;
 import com.pokegoapi.api.listener.HeartbeatListener;
 import com.pokegoapi.api.map.Map;
+import com.pokegoapi.api.map.SpatialIndex;
 import com.pokegoapi.api.settings.MapSettings;
+import com.pokegoapi.google.common.geometry.S2CellId;
+import com.pokegoapi.google.common.geometry.S2LatLng;
 import lombok.Getter;
 
 import java.util.List;
 
+/**
+ * Schedules map refreshes on a single timer thread. A refresh is due when the maximum refresh interval has passed,
+ * or, once the minimum refresh interval has passed, when the player moved far enough from the location of the last
+ * refresh or when a pokemon or lure on the map expires.
+ */
 public class Heartbeat {
+	/**
+	 * Lower bound for the time between two beats, in milliseconds
+	 */
+	private static final long MIN_BEAT_INTERVAL = 10;
+
 	@Getter
 	private PokemonGo api;
 
-	private long nextMapUpdate = Long.MIN_VALUE;
-	private long minMapRefresh;
-	private long maxMapRefresh;
+	private long lastMapUpdate = Long.MIN_VALUE;
+	private long nextBeat = Long.MIN_VALUE;
+	private double lastLatitude = Double.NaN;
+	private double lastLongitude = Double.NaN;
+	private long lastCell;
 	private boolean updatingMap;
+	private boolean wakeRequested;
+	private int suspensions;
 
-	private boolean active;
+	private volatile boolean active;
 
 	private final Object lock = new Object();
 
@@ -46,66 +63,200 @@ public class Heartbeat {
 	}
 
 	/**
-	 * Begins this heartbeat
+	 * Begins this heartbeat, performing the first beat on the calling thread
 	 */
 	public void start() {
-		if (!active) {
+		synchronized (lock) {
+			if (active) {
+				return;
+			}
 			active = true;
-			beat();
-			Thread heartbeatThread = new Thread(new Runnable() {
-				@Override
-				public void run() {
-					while (active) {
-						try {
-							Thread.sleep(10);
-						} catch (InterruptedException e) {
-							break;
+		}
+		beat();
+		startThread();
+	}
+
+	/**
+	 * Notifies this heartbeat that the player location changed. Until the first map has been loaded, this beats on the
+	 * calling thread so the map objects are available when the first valid location is set, like {@link #start()}.
+	 * Afterwards it never blocks: the timer thread is woken to re-evaluate the schedule.
+	 */
+	public void locationChanged() {
+		if (!active) {
+			start();
+			return;
+		}
+		synchronized (lock) {
+			if (lastMapUpdate != Long.MIN_VALUE || suspensions > 0) {
+				wakeRequested = true;
+				lock.notifyAll();
+				return;
+			}
+			try {
+				while (updatingMap) {
+					lock.wait();
+				}
+			} catch (InterruptedException e) {
+				Thread.currentThread().interrupt();
+				return;
+			}
+		}
+		beat();
+	}
+
+	private void startThread() {
+		Thread heartbeatThread = new Thread(new Runnable() {
+			@Override
+			public void run() {
+				while (active) {
+					beat();
+					try {
+						synchronized (lock) {
+							while (active && !wakeRequested) {
+								long delay = nextBeat - api.currentTimeMillis();
+								if (delay <= 0) {
+									break;
+								}
+								lock.wait(delay);
+							}
+							wakeRequested = false;
 						}
-						beat();
+					} catch (InterruptedException e) {
+						break;
 					}
 				}
-			});
-			heartbeatThread.setDaemon(true);
-			heartbeatThread.setName("Heartbeat thread");
-			heartbeatThread.start();
-		}
+			}
+		});
+		heartbeatThread.setDaemon(true);
+		heartbeatThread.setName("Heartbeat thread");
+		heartbeatThread.start();
 	}
 
 	/**
-	 * Performs a single heartbeat
+	 * Performs a single heartbeat, refreshing the map if a refresh is due
 	 */
 	public void beat() {
 		MapSettings mapSettings = api.getSettings().getMapSettings();
-		minMapRefresh = (long) mapSettings.getMinRefresh();
-		maxMapRefresh = (long) mapSettings.getMaxRefresh();
+		long minMapRefresh = (long) mapSettings.getMinRefresh();
+		long maxMapRefresh = Math.max(minMapRefresh, (long) mapSettings.getMaxRefresh());
+		double minDistance = mapSettings.getMinMapObjectDistance();
 
-		List<HeartbeatListener> listeners = api.getListeners(HeartbeatListener.class);
+		double latitude = api.getLatitude();
+		double longitude = api.getLongitude();
 		long time = api.currentTimeMillis();
-		boolean updatingMap;
+		Map map = api.getMap();
+
 		synchronized (lock) {
-			updatingMap = this.updatingMap;
+			if (updatingMap) {
+				return;
+			}
+			if (suspensions > 0) {
+				nextBeat = Long.MAX_VALUE;
+				return;
+			}
+			long minUpdate = lastMapUpdate == Long.MIN_VALUE ? Long.MIN_VALUE : lastMapUpdate + minMapRefresh;
+			long maxUpdate = lastMapUpdate == Long.MIN_VALUE ? Long.MIN_VALUE : lastMapUpdate + maxMapRefresh;
+			boolean moved = hasMoved(latitude, longitude, minDistance);
+			long expiration = map.getMapObjects().getNextExpiration();
+			boolean due = time >= maxUpdate || (time >= minUpdate && (moved || time >= expiration));
+			if (!due) {
+				long next = maxUpdate;
+				if (moved) {
+					next = minUpdate;
+				} else if (expiration < maxUpdate) {
+					next = Math.max(minUpdate, expiration);
+				}
+				nextBeat = Math.max(next, time + MIN_BEAT_INTERVAL);
+				return;
+			}
+			updatingMap = true;
+		}
+
+		List<HeartbeatListener> listeners = api.getListeners(HeartbeatListener.class);
+		boolean updated = false;
+		try {
+			updated = map.update();
+			for (HeartbeatListener listener : listeners) {
+				listener.onMapUpdate(api, map.getMapObjects());
+			}
+		} catch (Exception exception) {
+			for (HeartbeatListener listener : listeners) {
+				listener.onMapUpdateException(api, exception);
+			}
 		}
-		if (time >= nextMapUpdate && !updatingMap) {
-			synchronized (lock) {
-				this.updatingMap = true;
+
+		synchronized (lock) {
+			if (updated) {
+				lastMapUpdate = time;
+				lastLatitude = latitude;
+				lastLongitude = longitude;
+				lastCell = getCell(latitude, longitude);
 			}
-			Map map = api.getMap();
+			nextBeat = api.currentTimeMillis() + Math.max(minMapRefresh, MIN_BEAT_INTERVAL);
+			updatingMap = false;
+			lock.notifyAll();
+		}
+	}
+
+	/**
+	 * Suspends map refreshes until a matching call to {@link #resume()}, for callers that move the player and request
+	 * map objects themselves. Waits for a refresh in progress to complete.
+	 *
+	 * @return the time of the last map refresh sent by this heartbeat, or {@link Long#MIN_VALUE} if there was none
+	 * @throws InterruptedException if this thread is interrupted while waiting for a refresh to complete
+	 */
+	public long suspend() throws InterruptedException {
+		synchronized (lock) {
+			suspensions++;
 			try {
-				if (map.update()) {
-					nextMapUpdate = time + minMapRefresh;
-				}
-				for (HeartbeatListener listener : listeners) {
-					listener.onMapUpdate(api, map.getMapObjects());
-				}
-			} catch (Exception exception) {
-				for (HeartbeatListener listener : listeners) {
-					listener.onMapUpdateException(api, exception);
+				while (updatingMap) {
+					lock.wait();
 				}
+			} catch (InterruptedException e) {
+				suspensions--;
+				throw e;
 			}
-			synchronized (lock) {
-				this.updatingMap = false;
+			return lastMapUpdate;
+		}
+	}
+
+	/**
+	 * Resumes map refreshes suspended by {@link #suspend()}
+	 */
+	public void resume() {
+		synchronized (lock) {
+			if (suspensions > 0) {
+				suspensions--;
 			}
+			wakeRequested = true;
+			lock.notifyAll();
+		}
+	}
+
+	/**
+	 * Checks if the given location is far enough from the location of the last refresh to need new map objects
+	 *
+	 * @param latitude the current latitude
+	 * @param longitude the current longitude
+	 * @param minDistance the minimum distance between two map requests, in meters
+	 * @return true if the player moved into another level 15 cell or further than the minimum distance
+	 */
+	private boolean hasMoved(double latitude, double longitude, double minDistance) {
+		if (Double.isNaN(lastLatitude) || Double.isNaN(latitude) || Double.isNaN(longitude)) {
+			return false;
+		}
+		if (latitude == lastLatitude && longitude == lastLongitude) {
+			return false;
+		}
+		if (getCell(latitude, longitude) != lastCell) {
+			return true;
 		}
+		return minDistance > 0
+				&& SpatialIndex.getDistance(lastLatitude, lastLongitude, latitude, longitude) >= minDistance;
+	}
+
+	private static long getCell(double latitude, double longitude) {
+		return S2CellId.fromLatLng(S2LatLng.fromDegrees(latitude, longitude)).parent(15).id();
 	}
 
 	/**
@@ -119,6 +270,9 @@ public class Heartbeat {
 	 * Exits this heartbeat
 	 */
 	public void exit() {
-		active = false;
+		synchronized (lock) {
+			active = false;
+			lock.notifyAll();
+		}
 	}
 }
@@ -242,7 +242,7 @@ public class RequestHandler implements Runnable {
 					ByteString returned = responseEnvelope.getReturns(i);
 					ServerRequest serverRequest = requests[i];
 					if (returned != null) {
-						serverResponse.addResponse(serverRequest.getType(), returned);
+						serverResponse.addResponse(serverRequest, returned);
 						if (serverRequest.getType() == RequestType.GET_PLAYER) {
 							if (GetPlayerResponse.parseFrom(returned).getBanned()) {
 								throw new BannedException("Cannot send request, your account has been banned!");
@@ -381,6 +381,14 @@ public class RequestHandler implements Runnable {
 					envelope.setRequest(addRequest(envelope, requests, envelope.getRequest()));
 				}
 
+				List<ServerRequest> batched = envelope.getBatchedRequests();
+				for (int i = 0; i < batched.size(); i++) {
+					ServerRequest adaptedRequest = addRequest(envelope, requests, batched.get(i));
+					if (adaptedRequest != null) {
+						batched.set(i, adaptedRequest);
+					}
+				}
+
 				List<ServerRequest> commons = new ArrayList<>(envelope.getCommons());
 				for (ServerRequest commonRequest : commons) {
 					ServerRequest adaptedRequest = addRequest(envelope, requests, commonRequest);
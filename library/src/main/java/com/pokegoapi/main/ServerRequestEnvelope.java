@@ -37,6 +37,8 @@ public class ServerRequestEnvelope {
 	@Setter
 	private ServerRequest request;
 	@Getter
+	private List<ServerRequest> batchedRequests = new ArrayList<>();
+	@Getter
 	private List<ServerPlatformRequest> platformRequests = new ArrayList<>();
 	@Getter
 	private List<ServerRequest> commons;
@@ -163,6 +165,18 @@ public class ServerRequestEnvelope {
 		this.setRequest(new ServerRequest(requestType, request));
 	}
 
+	/**
+	 * Adds a request to be sent after the main request of this envelope. Several requests of the same type
+	 * can be batched, each receives its own response.
+	 *
+	 * @param request the request to add
+	 * @return the added request
+	 */
+	public ServerRequest addBatchedRequest(ServerRequest request) {
+		this.batchedRequests.add(request);
+		return request;
+	}
+
 	/**
 	 * Adds a platform request to this envelope
 	 *
@@ -191,13 +205,17 @@ public class ServerRequestEnvelope {
 	 * @param response the response
 	 */
 	public void handleResponse(ServerResponse response) {
-		if (request != null && response.has(request.getType())) {
-			request.handleResponse(response.get(request.getType()));
+		if (request != null && response.has(request)) {
+			request.handleResponse(response.get(request));
+		}
+		for (ServerRequest request : batchedRequests) {
+			if (response.has(request)) {
+				request.handleResponse(response.get(request));
+			}
 		}
 		for (ServerRequest request : commons) {
-			RequestType type = request.getType();
-			if (response.has(type)) {
-				request.handleResponse(response.get(type));
+			if (response.has(request)) {
+				request.handleResponse(response.get(request));
 			}
 		}
 		for (ServerPlatformRequest request : platformRequests) {
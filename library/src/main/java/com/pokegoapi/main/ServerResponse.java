@@ -22,10 +22,12 @@ import lombok.Getter;
 import lombok.Setter;
 
 import java.util.EnumMap;
+import java.util.IdentityHashMap;
 
 public class ServerResponse {
 	private final EnumMap<RequestType, ByteString> responses = new EnumMap<>(RequestType.class);
 	private final EnumMap<PlatformRequestType, ByteString> platformResponses = new EnumMap<>(PlatformRequestType.class);
+	private final IdentityHashMap<ServerRequest, ByteString> requestResponses = new IdentityHashMap<>();
 	@Getter
 	@Setter
 	private Exception exception;
@@ -55,6 +57,18 @@ public class ServerResponse {
 		responses.put(type, data);
 	}
 
+	/**
+	 * Adds the response to a single request of this envelope. Several requests of the same type can be
+	 * told apart with {@link #get(ServerRequest)}.
+	 *
+	 * @param request the request
+	 * @param data the response data for this request
+	 */
+	public void addResponse(ServerRequest request, ByteString data) {
+		requestResponses.put(request, data);
+		responses.put(request.getType(), data);
+	}
+
 	/**
 	 * Adds a response to this envelope
 	 *
@@ -75,6 +89,34 @@ public class ServerResponse {
 		return responses.get(type);
 	}
 
+	/**
+	 * Gets the response data for the given request. If this response was built from responses per type only,
+	 * the response for the type of the request is returned instead.
+	 *
+	 * @param request the request to get the response for
+	 * @return response data for the given request, null if it was not answered
+	 */
+	public ByteString get(ServerRequest request) {
+		if (requestResponses.isEmpty()) {
+			return responses.get(request.getType());
+		}
+		return requestResponses.get(request);
+	}
+
+	/**
+	 * Checks if this response contains the response to the given request
+	 *
+	 * @param request the request to check for
+	 * @return true if this response contains the response to the given request
+	 * @see #get(ServerRequest)
+	 */
+	public boolean has(ServerRequest request) {
+		if (requestResponses.isEmpty()) {
+			return responses.containsKey(request.getType());
+		}
+		return requestResponses.containsKey(request);
+	}
+
 	/**
 	 * Gets the response data for this request type
 	 *
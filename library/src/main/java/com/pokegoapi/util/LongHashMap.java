@@ -0,0 +1,205 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pokegoapi.util;
+
+import java.util.Arrays;
+
+/**
+ * Open addressing hash map from primitive long keys to non-null values, using linear probing
+ * and backward shift deletion. Not thread safe.
+ *
+ * @param <V> the value type
+ */
+public class LongHashMap<V> {
+	private static final int MIN_CAPACITY = 16;
+
+	private long[] keys;
+	private Object[] values;
+	private int size;
+	private int mask;
+
+	/**
+	 * Creates an empty map
+	 */
+	public LongHashMap() {
+		this(MIN_CAPACITY);
+	}
+
+	/**
+	 * Creates an empty map with room for the given amount of entries before resizing
+	 *
+	 * @param expectedSize the expected amount of entries
+	 */
+	public LongHashMap(int expectedSize) {
+		int capacity = MIN_CAPACITY;
+		while (capacity * 3 / 4 < expectedSize) {
+			capacity <<= 1;
+		}
+		allocate(capacity);
+	}
+
+	private void allocate(int capacity) {
+		keys = new long[capacity];
+		values = new Object[capacity];
+		mask = capacity - 1;
+	}
+
+	private int slot(long key) {
+		long hash = key * 0x9E3779B97F4A7C15L;
+		return (int) (hash ^ (hash >>> 32)) & mask;
+	}
+
+	/**
+	 * Gets the value for the given key
+	 *
+	 * @param key the key
+	 * @return the value, or null if there is no value for the key
+	 */
+	@SuppressWarnings("unchecked")
+	public V get(long key) {
+		int slot = slot(key);
+		Object value;
+		while ((value = values[slot]) != null) {
+			if (keys[slot] == key) {
+				return (V) value;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return null;
+	}
+
+	/**
+	 * Checks if there is a value for the given key
+	 *
+	 * @param key the key
+	 * @return true if there is a value for the key
+	 */
+	public boolean containsKey(long key) {
+		return get(key) != null;
+	}
+
+	/**
+	 * Sets the value for the given key
+	 *
+	 * @param key the key
+	 * @param value the value, must not be null
+	 * @return the previous value, or null if there was none
+	 */
+	@SuppressWarnings("unchecked")
+	public V put(long key, V value) {
+		if (value == null) {
+			throw new NullPointerException("LongHashMap does not support null values");
+		}
+		int slot = slot(key);
+		Object current;
+		while ((current = values[slot]) != null) {
+			if (keys[slot] == key) {
+				values[slot] = value;
+				return (V) current;
+			}
+			slot = (slot + 1) & mask;
+		}
+		keys[slot] = key;
+		values[slot] = value;
+		if (++size > (mask + 1) * 3 / 4) {
+			resize((mask + 1) << 1);
+		}
+		return null;
+	}
+
+	/**
+	 * Removes the value for the given key
+	 *
+	 * @param key the key
+	 * @return the removed value, or null if there was none
+	 */
+	@SuppressWarnings("unchecked")
+	public V remove(long key) {
+		int slot = slot(key);
+		Object current;
+		while ((current = values[slot]) != null) {
+			if (keys[slot] == key) {
+				shiftBack(slot);
+				size--;
+				return (V) current;
+			}
+			slot = (slot + 1) & mask;
+		}
+		return null;
+	}
+
+	/**
+	 * Fills the gap at the given slot by moving back entries of the same probe sequence
+	 */
+	private void shiftBack(int gap) {
+		int slot = gap;
+		while (true) {
+			slot = (slot + 1) & mask;
+			if (values[slot] == null) {
+				break;
+			}
+			int home = slot(keys[slot]);
+			// Move the entry if its home slot is not cyclically within (gap, slot]
+			if (((slot - home) & mask) >= ((slot - gap) & mask)) {
+				keys[gap] = keys[slot];
+				values[gap] = values[slot];
+				gap = slot;
+			}
+		}
+		values[gap] = null;
+		keys[gap] = 0;
+	}
+
+	private void resize(int capacity) {
+		long[] oldKeys = keys;
+		Object[] oldValues = values;
+		allocate(capacity);
+		for (int i = 0; i < oldKeys.length; i++) {
+			Object value = oldValues[i];
+			if (value != null) {
+				int slot = slot(oldKeys[i]);
+				while (values[slot] != null) {
+					slot = (slot + 1) & mask;
+				}
+				keys[slot] = oldKeys[i];
+				values[slot] = value;
+			}
+		}
+	}
+
+	/**
+	 * @return the amount of entries in this map
+	 */
+	public int size() {
+		return size;
+	}
+
+	/**
+	 * @return true if this map has no entries
+	 */
+	public boolean isEmpty() {
+		return size == 0;
+	}
+
+	/**
+	 * Removes all entries from this map
+	 */
+	public void clear() {
+		Arrays.fill(values, null);
+		Arrays.fill(keys, 0);
+		size = 0;
+	}
+}
@@ -4,6 +4,8 @@ import java.nio.ByteBuffer;
 
 public class NiaHash {
 	private static final int HASH_SEED = 0x46E945F8;
+	private static final byte[] SEED_BYTES = toBytes(HASH_SEED);
+	private static final byte[] EMPTY = new byte[0];
 	private static final long[] MAGIC_TABLE = new long[]{
 			0x2DD7CAAEFCF073EBL, 0xA9209937349CFE9CL,
 			0xB84BFC934B0E60EFL, 0xFF709C157B26E477L,
@@ -14,12 +16,25 @@ public class NiaHash {
 			0x5089C907844C6325L, 0xDF887E97D73C50E3L,
 			0xAE8870787CE3C11DL, 0xA6767D18C58D2117L,
 	};
-	private static final UInt128 ROUND_MAGIC = new UInt128(0x081570AFDD535EC3L, 0xE3F0D44988BCDFABL);
+	private static final long ROUND_MAGIC_LOW = 0x081570AFDD535EC3L;
+	private static final long ROUND_MAGIC_HIGH = 0xE3F0D44988BCDFABL;
+	private static final long ROUND_MAGIC_0 = ROUND_MAGIC_LOW & 0xFFFFFFFFL;
+	private static final long ROUND_MAGIC_1 = ROUND_MAGIC_LOW >>> 32;
+	private static final long ROUND_MAGIC_2 = ROUND_MAGIC_HIGH & 0xFFFFFFFFL;
+	private static final long ROUND_MAGIC_3 = ROUND_MAGIC_HIGH >>> 32;
 	private static final long FINAL_MAGIC_0 = 0xCE7C4801D683E824L;
 	private static final long FINAL_MAGIC_1 = 0x6823775B1DAAD522L;
 
 	public static int hash32(byte[] buffer) {
-		return hash32Salt(buffer, toBytes(HASH_SEED));
+		return hash32Salt(buffer, SEED_BYTES);
+	}
+
+	public static int hash32(byte[] buffer, int offset, int length) {
+		return hash32Salt(buffer, offset, length, SEED_BYTES);
+	}
+
+	public static int hash32(ByteBuffer buffer) {
+		return hash32Salt(buffer, SEED_BYTES);
 	}
 
 	/**
@@ -30,12 +45,44 @@ public class NiaHash {
 	 * @return hash for given inputs
 	 */
 	public static int hash32Salt(byte[] buffer, byte[] salt) {
-		long result = hash64Salt(buffer, salt);
-		return (int) ((result & 0xFFFFFFFFL) ^ (result >>> 32));
+		return hash32Salt(buffer, 0, buffer.length, salt);
+	}
+
+	/**
+	 * Computes 32-bit hash with salt over a segment of the given buffer
+	 *
+	 * @param buffer input to the hash function
+	 * @param offset offset of the segment to hash
+	 * @param length length of the segment to hash
+	 * @param salt salt for the hash function
+	 * @return hash for given inputs
+	 */
+	public static int hash32Salt(byte[] buffer, int offset, int length, byte[] salt) {
+		return fold(hash64Salt(buffer, offset, length, salt));
+	}
+
+	/**
+	 * Computes 32-bit hash with salt over the remaining bytes of the given buffer.
+	 * The position of the buffer is not modified.
+	 *
+	 * @param buffer input to the hash function
+	 * @param salt salt for the hash function
+	 * @return hash for given inputs
+	 */
+	public static int hash32Salt(ByteBuffer buffer, byte[] salt) {
+		return fold(hash64Salt(buffer, salt));
 	}
 
 	public static long hash64(byte[] buffer) {
-		return hash64Salt(buffer, toBytes(HASH_SEED));
+		return hash64Salt(buffer, SEED_BYTES);
+	}
+
+	public static long hash64(byte[] buffer, int offset, int length) {
+		return hash64Salt(buffer, offset, length, SEED_BYTES);
+	}
+
+	public static long hash64(ByteBuffer buffer) {
+		return hash64Salt(buffer, SEED_BYTES);
 	}
 
 	/**
@@ -46,10 +93,42 @@ public class NiaHash {
 	 * @return hash for given inputs
 	 */
 	public static long hash64Salt(byte[] buffer, byte[] salt) {
-		byte[] newBuffer = new byte[buffer.length + salt.length];
-		System.arraycopy(salt, 0, newBuffer, 0, salt.length);
-		System.arraycopy(buffer, 0, newBuffer, salt.length, buffer.length);
-		return computeHash(newBuffer, newBuffer.length);
+		return hash64Salt(buffer, 0, buffer.length, salt);
+	}
+
+	/**
+	 * Computes 64-bit hash with salt over a segment of the given buffer.
+	 * The salt and buffer are read in place, as if they were concatenated.
+	 *
+	 * @param buffer input to the hash function
+	 * @param offset offset of the segment to hash
+	 * @param length length of the segment to hash
+	 * @param salt salt for the hash function
+	 * @return hash for given inputs
+	 */
+	public static long hash64Salt(byte[] buffer, int offset, int length, byte[] salt) {
+		if (offset < 0 || length < 0 || offset + length > buffer.length) {
+			throw new IndexOutOfBoundsException("offset: " + offset + ", length: " + length
+					+ ", buffer length: " + buffer.length);
+		}
+		return computeHash(salt, buffer, null, offset, length);
+	}
+
+	/**
+	 * Computes 64-bit hash with salt over the remaining bytes of the given buffer.
+	 * The position of the buffer is not modified.
+	 *
+	 * @param buffer input to the hash function
+	 * @param salt salt for the hash function
+	 * @return hash for given inputs
+	 */
+	public static long hash64Salt(ByteBuffer buffer, byte[] salt) {
+		int position = buffer.position();
+		int length = buffer.remaining();
+		if (buffer.hasArray()) {
+			return computeHash(salt, buffer.array(), null, buffer.arrayOffset() + position, length);
+		}
+		return computeHash(salt, null, buffer, position, length);
 	}
 
 	public static long hash64Salt64(byte[] buffer, long salt) {
@@ -65,44 +144,93 @@ public class NiaHash {
 	 * @return hash for given input
 	 */
 	public static long computeHash(byte[] in, int length) {
-		int chunkCount = length >> 7;
+		return computeHash(EMPTY, in, null, 0, length);
+	}
 
-		// copy tail, pad with zeroes
-		// TODO: try to avoid memcopy (work in place)
-		byte[] tail = new byte[128];
+	/**
+	 * Computes the hash of the salt followed by the given data segment, without concatenating them.
+	 * The data is read from the array if given, otherwise from the buffer.
+	 *
+	 * @param salt the salt to prefix the data with
+	 * @param array the array to read data from, or null to read from buffer
+	 * @param buffer the buffer to read data from when array is null
+	 * @param offset offset of the data in the array or buffer
+	 * @param dataLength length of the data
+	 * @return hash for given input
+	 */
+	private static long computeHash(byte[] salt, byte[] array, ByteBuffer buffer, int offset, int dataLength) {
+		int length = salt.length + dataLength;
+		int chunkCount = length >> 7;
 		int tailSize = length & 0x7F;
-		System.arraycopy(in, length - tailSize, tail, 0, tailSize);
 
-		UInt128 hash;
-		if (chunkCount != 0) {
-			hash = hashChunk(in, 128, 0); // Hash the first 128 bytes
-		} else {
-			hash = hashChunk(tail, tailSize, 0); // Hash the tail
-		}
+		// The first chunk is added to the round magic, every following chunk (including a partial tail)
+		// is folded in with hashMulAdd. An input without full chunks only hashes the (possibly empty) tail.
+		int chunks = chunkCount != 0 ? chunkCount + (tailSize != 0 ? 1 : 0) : 1;
+
+		long hashLow = 0;
+		long hashHigh = 0;
+		for (int chunk = 0; chunk < chunks; chunk++) {
+			int chunkOffset = chunk << 7;
+			int size = Math.min(128, length - chunkOffset);
 
-		hash = hash.add(ROUND_MAGIC);
-		int offset = 0;
-		if (chunkCount != 0) {
-			while (--chunkCount != 0) {
-				offset += 128;
-				hash = hashMulAdd(hash, ROUND_MAGIC, hashChunk(in, 128, offset));
+			// hashChunk
+			long chunkLow = 0;
+			long chunkHigh = 0;
+			for (int i = 0; i < 8; i++) {
+				int offsetInChunk = i * 16;
+				if (offsetInChunk >= size) {
+					break;
+				}
+				int position = chunkOffset + offsetInChunk;
+				long even = readInt64(salt, array, buffer, offset, length, position) + MAGIC_TABLE[i * 2];
+				long odd = readInt64(salt, array, buffer, offset, length, position + 8) + MAGIC_TABLE[i * 2 + 1];
+				long mulLow = even * odd;
+				long previousLow = chunkLow;
+				chunkLow += mulLow;
+				chunkHigh += multiplyHigh(even, odd) + carry(previousLow, mulLow, chunkLow);
 			}
-			if (tailSize != 0) {
-				hash = hashMulAdd(hash, ROUND_MAGIC, hashChunk(tail, tailSize, 0));
+			chunkHigh = chunkHigh << 2 >>> 2;
+
+			if (chunk == 0) {
+				hashLow = chunkLow + ROUND_MAGIC_LOW;
+				hashHigh = chunkHigh + ROUND_MAGIC_HIGH + carry(chunkLow, ROUND_MAGIC_LOW, hashLow);
+			} else {
+				// hashMulAdd(hash, ROUND_MAGIC, chunk)
+				long a0 = chunkLow & 0xFFFFFFFFL;
+				long a1 = chunkLow >>> 32;
+				long h0 = hashLow & 0xFFFFFFFFL;
+				long h1 = hashLow >>> 32;
+				long h2 = hashHigh & 0xFFFFFFFFL;
+				long h3 = hashHigh >>> 32;
+
+				/* Column sums, before carry */
+				long c0 = (h0 * ROUND_MAGIC_0);
+				long c1 = (h0 * ROUND_MAGIC_1) + (h1 * ROUND_MAGIC_0);
+				long c2 = (h0 * ROUND_MAGIC_2) + (h1 * ROUND_MAGIC_1) + (h2 * ROUND_MAGIC_0);
+				long c3 = (h0 * ROUND_MAGIC_3) + (h1 * ROUND_MAGIC_2) + (h2 * ROUND_MAGIC_1) + (h3 * ROUND_MAGIC_0);
+				long c4 = (h1 * ROUND_MAGIC_3) + (h2 * ROUND_MAGIC_2) + (h3 * ROUND_MAGIC_1);
+				long c5 = (h2 * ROUND_MAGIC_3) + (h3 * ROUND_MAGIC_2);
+				long c6 = (h3 * ROUND_MAGIC_3);
+
+				/* Combine, add, and carry (bugs included) */
+				long r2 = c2 + (c6 << 1) + chunkHigh;
+				long r3 = c3 + (r2 >>> 32);
+
+				long r0 = c0 + (c4 << 1) + a0 + (r3 >>> 31);
+				long r1 = c1 + (c5 << 1) + a1 + (r0 >>> 32);
+
+				// no carry during addition as bit63 = 0
+				hashLow = (r1 << 32) | (r0 & 0xFFFFFFFFL);
+				hashHigh = ((r3 << 33 >>> 1) | (r2 & 0xFFFFFFFFL)) + (r1 >>> 32);
 			}
 		}
 
 		// Finalize the hash
-		hash.add(new UInt128(0, tailSize * 8));
-		UInt128 temporary = new UInt128(hash);
-		temporary.add(new UInt128(1L, 0L));
-		if (temporary.high < 0) {
-			hash = temporary;
+		hashHigh += tailSize * 8;
+		if (hashHigh < 0) {
+			hashLow += 1L;
 		}
-		hash.clearHighBits(1);
-
-		long hashHigh = hash.high;
-		long hashLow = hash.low;
+		hashHigh = hashHigh << 1 >>> 1;
 
 		long hash1 = hashHigh + (hashLow >>> 32);
 		hash1 = ((hash1 + (hash1 >>> 32) + 1L) >>> 32) + hashHigh;
@@ -118,80 +246,109 @@ public class NiaHash {
 			magicHash2 += 0x101L;
 		}
 
-		UInt128 unsignedHash = UInt128.multiply(magicHash1, magicHash2);
-		unsignedHash.multiply(0x101L);
-		unsignedHash.multiply(0x101L);
+		long low = magicHash1 * magicHash2;
+		long high = multiplyHigh(magicHash1, magicHash2);
+		for (int i = 0; i < 2; i++) {
+			// (low, high) = high * 0x101 + low
+			long productLow = high * 0x101L;
+			long productHigh = multiplyHigh(0x101L, high);
+			long sum = productLow + low;
+			high = productHigh + carry(productLow, low, sum);
+			low = sum;
+		}
 
-		if (unsignedHash.high != 0L) {
-			unsignedHash.add(new UInt128(0x101L, 0));
+		if (high != 0L) {
+			low += 0x101L;
 		}
-		if (unsignedCompare(0xFFFFFFFFFFFFFEFEL, unsignedHash.low)) {
-			unsignedHash.add(new UInt128(0x101L, 0));
+		if (unsignedCompare(0xFFFFFFFFFFFFFEFEL, low)) {
+			low += 0x101L;
 		}
 
-		return unsignedHash.low;
+		return low;
 	}
 
-	private static UInt128 hashChunk(byte[] chunk, int size, int masterOffset) {
-		UInt128 hash = new UInt128(0L, 0L);
-		for (int i = 0; i < 8; i++) {
-			int offset = i * 16;
-			if (offset >= size) {
-				break;
-			}
-			long first = readInt64(chunk, masterOffset + offset);
-			long second = readInt64(chunk, masterOffset + offset + 8);
-			long even = first + (MAGIC_TABLE[i * 2]);
-			long odd = second + (MAGIC_TABLE[i * 2 + 1]);
-			UInt128 mul = UInt128.multiply(even, odd);
-			hash.add(mul);
+	/**
+	 * Returns the carry of a 64-bit addition, as computed by the original port (bugs included:
+	 * a sum of exactly 2^64 does not carry).
+	 *
+	 * @param first the first operand
+	 * @param second the second operand
+	 * @param sum the 64-bit sum of both operands
+	 * @return 1 if this addition carries into the high word, otherwise 0
+	 */
+	private static long carry(long first, long second, long sum) {
+		boolean sx = first < 0;
+		boolean sy = second < 0;
+		return sx && sy || (sum > 0 && (sx || sy)) ? 1L : 0L;
+	}
+
+	/**
+	 * Returns the upper 64 bits of the unsigned 128-bit product of the given values.
+	 *
+	 * @param first the first factor
+	 * @param second the second factor
+	 * @return the upper 64 bits of the product
+	 */
+	private static long multiplyHigh(long first, long second) {
+		long secondLow = second & 0xFFFFFFFFL;
+		long secondHigh = second >>> 32;
+		long firstLow = first & 0xFFFFFFFFL;
+		long firstHigh = first >>> 32;
+
+		long high = secondHigh * firstHigh;
+
+		long p01 = firstLow * secondHigh;
+		long p10 = firstHigh * secondLow;
+		long p00 = firstLow * secondLow;
+
+		high += (p01 >>> 32);
+		high += (p10 >>> 32);
+
+		long p2 = (p00 >>> 32) + (p01 & 0xFFFFFFFFL) + (p10 & 0xFFFFFFFFL);
+		high += (p2 >>> 32);
+		return high;
+	}
+
+	/**
+	 * Reads a little-endian 64-bit integer from the virtual concatenation of salt and data.
+	 * Bytes past the end of the input read as zero: 01, 02, 03, 04, 05, 06, 07, 08 -> 0x0807060504030201
+	 */
+	private static long readInt64(byte[] salt, byte[] array, ByteBuffer buffer, int offset, int length,
+			int position) {
+		int saltLength = salt.length;
+		if (array != null && position >= saltLength && position + 8 <= length) {
+			int index = offset + position - saltLength;
+			return (array[index] & 0xFFL)
+					| (array[index + 1] & 0xFFL) << 8
+					| (array[index + 2] & 0xFFL) << 16
+					| (array[index + 3] & 0xFFL) << 24
+					| (array[index + 4] & 0xFFL) << 32
+					| (array[index + 5] & 0xFFL) << 40
+					| (array[index + 6] & 0xFFL) << 48
+					| (array[index + 7] & 0xFFL) << 56;
 		}
-		return hash.clearHighBits(2);
-	}
-
-	private static UInt128 hashMulAdd(UInt128 hash, UInt128 mul, UInt128 add) {
-		long a0 = add.low & 0xFFFFFFFFL;
-		long a1 = add.low >>> 32;
-		long a23 = add.high;
-		long m0 = mul.low & 0xFFFFFFFFL;
-		long m1 = mul.low >>> 32;
-		long m2 = mul.high & 0xFFFFFFFFL;
-		long m3 = mul.high >>> 32;
-		long h0 = hash.low & 0xFFFFFFFFL;
-		long h1 = hash.low >>> 32;
-		long h2 = hash.high & 0xFFFFFFFFL;
-		long h3 = hash.high >>> 32;
-
-		/* Column sums, before carry */
-		long c0 = (h0 * m0);
-		long c1 = (h0 * m1) + (h1 * m0);
-		long c2 = (h0 * m2) + (h1 * m1) + (h2 * m0);
-		long c3 = (h0 * m3) + (h1 * m2) + (h2 * m1) + (h3 * m0);
-		long c4 = (h1 * m3) + (h2 * m2) + (h3 * m1);
-		long c5 = (h2 * m3) + (h3 * m2);
-		long c6 = (h3 * m3);
-
-		/* Combine, add, and carry (bugs included) */
-		long r2 = c2 + (c6 << 1) + a23;
-		long r3 = c3 + (r2 >>> 32);
-
-		long r0 = c0 + (c4 << 1) + a0 + (r3 >>> 31);
-		long r1 = c1 + (c5 << 1) + a1 + (r0 >>> 32);
-
-		/* Return as uint128_t */
-		// no carry during addition as bit63 = 0
-		return new UInt128((r1 << 32) | (r0 & 0xFFFFFFFFL), ((r3 << 33 >>> 1) | (r2 & 0xFFFFFFFFL)) + (r1 >>> 32));
-	}
-
-	private static long readInt64(byte[] bytes, int offset) { // 01, 02, 03, 04, 05, 06, 07, 08 -> 0x0807060504030201
-		// endian-safe read 64-bit integer
 		long value = 0;
 		for (int i = 7; i >= 0; i--) {
-			value = (value << 8) | (bytes[offset + i] & 0xFF);
+			int index = position + i;
+			long current;
+			if (index >= length) {
+				current = 0;
+			} else if (index < saltLength) {
+				current = salt[index] & 0xFF;
+			} else if (array != null) {
+				current = array[offset + index - saltLength] & 0xFF;
+			} else {
+				current = buffer.get(offset + index - saltLength) & 0xFF;
+			}
+			value = (value << 8) | current;
 		}
 		return value;
 	}
 
+	private static int fold(long hash) {
+		return (int) ((hash & 0xFFFFFFFFL) ^ (hash >>> 32));
+	}
+
 	private static boolean unsignedCompare(long first, long second) {
 		return (first < second) ^ (first < 0) ^ (second < 0);
 	}
@@ -210,4 +367,4 @@ public class NiaHash {
 		ret[0] = (byte) ((value >> 24) & 0xFF);
 		return ret;
 	}
-}
\ No newline at end of file
+}
@@ -0,0 +1,90 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pokegoapi.util;
+
+import com.pokegoapi.api.PokemonGo;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Times every Nth signature and keeps the most recent samples in a ring buffer, to be dumped on demand
+ */
+public class SamplingSignatureProbe implements SignatureProbe {
+	private final int interval;
+	private final SignatureTimings[] samples;
+	private final AtomicLong counter = new AtomicLong();
+	private int next;
+	private int size;
+
+	/**
+	 * Creates a sampling probe
+	 *
+	 * @param interval the amount of signatures per sample, 1 to time every signature
+	 * @param capacity the amount of samples to keep
+	 */
+	public SamplingSignatureProbe(int interval, int capacity) {
+		if (interval < 1 || capacity < 1) {
+			throw new IllegalArgumentException("Interval and capacity must be positive!");
+		}
+		this.interval = interval;
+		this.samples = new SignatureTimings[capacity];
+	}
+
+	@Override
+	public boolean shouldTime(PokemonGo api) {
+		return counter.getAndIncrement() % interval == 0;
+	}
+
+	@Override
+	public void onTimed(PokemonGo api, SignatureTimings timings) {
+		synchronized (samples) {
+			samples[next] = timings;
+			next = (next + 1) % samples.length;
+			if (size < samples.length) {
+				size++;
+			}
+		}
+	}
+
+	/**
+	 * @return the recorded samples, oldest first
+	 */
+	public List<SignatureTimings> dump() {
+		synchronized (samples) {
+			List<SignatureTimings> dump = new ArrayList<>(size);
+			int start = (next - size + samples.length) % samples.length;
+			for (int i = 0; i < size; i++) {
+				dump.add(samples[(start + i) % samples.length]);
+			}
+			return dump;
+		}
+	}
+
+	/**
+	 * Removes all recorded samples
+	 */
+	public void clear() {
+		synchronized (samples) {
+			for (int i = 0; i < samples.length; i++) {
+				samples[i] = null;
+			}
+			next = 0;
+			size = 0;
+		}
+	}
+}
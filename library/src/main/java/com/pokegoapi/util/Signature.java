@@ -26,6 +26,7 @@ import com.pokegoapi.api.PokemonGo;
 import com.pokegoapi.api.device.LocationFixes;
 import com.pokegoapi.api.device.SensorInfo;
 import com.pokegoapi.exceptions.request.RequestFailedException;
+import com.pokegoapi.util.SignatureTimings.Stage;
 import com.pokegoapi.util.hash.Hash;
 import com.pokegoapi.util.hash.HashProvider;
 import com.pokegoapi.util.hash.crypto.Crypto;
@@ -44,6 +45,14 @@ public class Signature {
 	 * @throws RequestFailedException if an invalid request is sent
 	 */
 	public static void setSignature(PokemonGo api, RequestEnvelope.Builder builder) throws RequestFailedException {
+		SignatureProbe probe = api.getSignatureProbe();
+		SignatureTimings timings = null;
+		long stageStart = 0;
+		if (probe != null && probe.shouldTime(api)) {
+			timings = new SignatureTimings(api.currentTimeMillis(), builder.getRequestsCount());
+			stageStart = System.nanoTime();
+		}
+
 		boolean usePtr8 = false;
 		byte[][] requestData = new byte[builder.getRequestsCount()][];
 		for (int i = 0; i < builder.getRequestsCount(); i++) {
@@ -69,34 +78,47 @@ public class Signature {
 		if (Double.isNaN(accuracy)) {
 			accuracy = 0.0;
 		}
-		byte[] authTicket;
-		if (builder.hasAuthTicket()) {
-			authTicket = builder.getAuthTicket().toByteArray();
-		} else {
-			authTicket = builder.getAuthInfo().toByteArray();
+		SignatureContext context = api.getSignatureContext();
+		byte[] authTicket = context.getAuthTicket(builder);
+		if (timings != null) {
+			stageStart = timings.mark(Stage.SERIALIZE_REQUESTS, stageStart);
 		}
 
 		long currentTimeMillis = api.currentTimeMillis();
-		byte[] sessionHash = api.getSessionHash();
+		byte[] sessionHash = context.getSessionHash();
 		HashProvider provider = api.getHashProvider();
 		Hash hash = provider.provide(currentTimeMillis, latitude, longitude, accuracy, authTicket, sessionHash,
 				requestData);
+		if (timings != null) {
+			stageStart = timings.mark(Stage.HASH, stageStart);
+		}
+
+		LocationFixes locationFixes = LocationFixes.getDefault(api, builder, currentTimeMillis, RANDOM);
+		if (timings != null) {
+			stageStart = timings.mark(Stage.LOCATION_FIXES, stageStart);
+		}
 
 		long timeSinceStart = currentTimeMillis - api.getStartTime();
 		SignatureOuterClass.Signature.Builder signatureBuilder = SignatureOuterClass.Signature.newBuilder()
 				.setLocationHash1(hash.getLocationAuthHash())
 				.setLocationHash2(hash.getLocationHash())
-				.setSessionHash(ByteString.copyFrom(sessionHash))
+				.setSessionHash(context.getSessionHashBytes())
 				.setTimestamp(currentTimeMillis)
 				.setTimestampSinceStart(timeSinceStart)
-				.setDeviceInfo(api.getDeviceInfo())
-				.addAllLocationFix(LocationFixes.getDefault(api, builder, currentTimeMillis, RANDOM))
+				.setDeviceInfo(context.getDeviceInfo())
+				.addAllLocationFix(locationFixes)
 				.setActivityStatus(api.getActivitySignature(RANDOM))
 				.setUnknown25(provider.getUNK25())
 				.setUnknown27(RANDOM.nextInt(59000) + 1000); // Currently random, generation is unknown
+		if (timings != null) {
+			stageStart = timings.mark(Stage.BUILD, stageStart);
+		}
 
 		final SignatureOuterClass.Signature.SensorInfo sensorInfo = SensorInfo.getDefault(api, currentTimeMillis,
 				RANDOM);
+		if (timings != null) {
+			stageStart = timings.mark(Stage.SENSOR_INFO, stageStart);
+		}
 
 		if (sensorInfo != null)
 			signatureBuilder.addSensorInfo(sensorInfo);
@@ -108,7 +130,13 @@ public class Signature {
 		Crypto crypto = new Crypto();
 		SignatureOuterClass.Signature signature = signatureBuilder.build();
 		byte[] signatureByteArray = signature.toByteArray();
+		if (timings != null) {
+			stageStart = timings.mark(Stage.BUILD, stageStart);
+		}
 		byte[] encrypted = crypto.encrypt(signatureByteArray, timeSinceStart);
+		if (timings != null) {
+			timings.mark(Stage.ENCRYPT, stageStart);
+		}
 
 		ByteString signatureBytes = SendEncryptedSignatureRequest.newBuilder()
 				.setEncryptedSignature(ByteString.copyFrom(encrypted)).build()
@@ -129,5 +157,9 @@ public class Signature {
 					.setType(PlatformRequestType.UNKNOWN_PTR_8)
 					.setRequestMessage(ptr8).build());
 		}
+
+		if (timings != null) {
+			probe.onTimed(api, timings);
+		}
 	}
 }
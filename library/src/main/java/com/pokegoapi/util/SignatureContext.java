@@ -0,0 +1,92 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pokegoapi.util;
+
+import POGOProtos.Networking.Envelopes.RequestEnvelopeOuterClass.RequestEnvelope;
+import POGOProtos.Networking.Envelopes.SignatureOuterClass;
+import com.google.protobuf.ByteString;
+import com.google.protobuf.MessageLite;
+import com.pokegoapi.api.PokemonGo;
+
+/**
+ * Caches the parts of the signature that do not change within a session: the session hash and the serialized auth
+ * ticket. The device info is cached by {@link com.pokegoapi.api.device.DeviceInfo} itself, which knows when it
+ * changes. A new context is created for every session.
+ */
+public class SignatureContext {
+	private final PokemonGo api;
+
+	private final byte[] sessionHash;
+	private final ByteString sessionHashBytes;
+
+	private MessageLite auth;
+	private byte[] authBytes;
+
+	/**
+	 * Creates a signature context for the current session of the given api
+	 *
+	 * @param api the api
+	 */
+	public SignatureContext(PokemonGo api) {
+		this.api = api;
+		this.sessionHash = api.getSessionHash().clone();
+		this.sessionHashBytes = ByteString.copyFrom(sessionHash);
+	}
+
+	/**
+	 * @return the session hash of this session, must not be modified
+	 */
+	public byte[] getSessionHash() {
+		return sessionHash;
+	}
+
+	/**
+	 * @return the session hash of this session as a ByteString
+	 */
+	public ByteString getSessionHashBytes() {
+		return sessionHashBytes;
+	}
+
+	/**
+	 * Gets the current device info of the api, which is only rebuilt after it changed
+	 *
+	 * @return the device info
+	 */
+	public SignatureOuterClass.Signature.DeviceInfo getDeviceInfo() {
+		return api.getDeviceInfo();
+	}
+
+	/**
+	 * Gets the serialized auth ticket (or auth info, if no ticket is set) of the given envelope,
+	 * only serializing it if it changed since the last call
+	 *
+	 * @param builder the request envelope builder
+	 * @return the serialized auth ticket, must not be modified
+	 */
+	public synchronized byte[] getAuthTicket(RequestEnvelope.Builder builder) {
+		MessageLite current;
+		if (builder.hasAuthTicket()) {
+			current = builder.getAuthTicket();
+		} else {
+			current = builder.getAuthInfo();
+		}
+		if (current != auth && (auth == null || !auth.equals(current))) {
+			auth = current;
+			authBytes = current.toByteArray();
+		}
+		return authBytes;
+	}
+}
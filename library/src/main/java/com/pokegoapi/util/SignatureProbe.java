@@ -0,0 +1,39 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pokegoapi.util;
+
+import com.pokegoapi.api.PokemonGo;
+
+/**
+ * Receives per-stage timings of signature generation, see {@link PokemonGo#setSignatureProbe(SignatureProbe)}
+ */
+public interface SignatureProbe {
+	/**
+	 * Called before a signature is generated, to decide if its stages should be timed
+	 *
+	 * @param api the current api
+	 * @return true to time the stages of this signature
+	 */
+	boolean shouldTime(PokemonGo api);
+
+	/**
+	 * Called after a timed signature has been generated
+	 *
+	 * @param api the current api
+	 * @param timings the time spent in each stage of this signature
+	 */
+	void onTimed(PokemonGo api, SignatureTimings timings);
+}
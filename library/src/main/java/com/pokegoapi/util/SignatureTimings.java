@@ -0,0 +1,93 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pokegoapi.util;
+
+import lombok.Getter;
+
+/**
+ * The time spent in each stage of generating a single signature
+ */
+public class SignatureTimings {
+	public enum Stage {
+		SERIALIZE_REQUESTS,
+		HASH,
+		LOCATION_FIXES,
+		SENSOR_INFO,
+		BUILD,
+		ENCRYPT
+	}
+
+	private static final Stage[] STAGES = Stage.values();
+
+	@Getter
+	private final long timestamp;
+	@Getter
+	private final int requestCount;
+	private final long[] durations = new long[STAGES.length];
+
+	/**
+	 * Creates timings for a signature
+	 *
+	 * @param timestamp the time this signature was created at
+	 * @param requestCount the amount of requests signed
+	 */
+	public SignatureTimings(long timestamp, int requestCount) {
+		this.timestamp = timestamp;
+		this.requestCount = requestCount;
+	}
+
+	/**
+	 * Records the end of the given stage
+	 *
+	 * @param stage the stage that ended
+	 * @param start the nano time the stage started at
+	 * @return the current nano time, the start of the next stage
+	 */
+	public long mark(Stage stage, long start) {
+		long now = System.nanoTime();
+		durations[stage.ordinal()] += now - start;
+		return now;
+	}
+
+	/**
+	 * @param stage the stage
+	 * @return the time spent in the given stage, in nanoseconds
+	 */
+	public long getDuration(Stage stage) {
+		return durations[stage.ordinal()];
+	}
+
+	/**
+	 * @return the total time spent in all stages, in nanoseconds
+	 */
+	public long getTotal() {
+		long total = 0;
+		for (long duration : durations) {
+			total += duration;
+		}
+		return total;
+	}
+
+	@Override
+	public String toString() {
+		StringBuilder builder = new StringBuilder("SignatureTimings{timestamp=").append(timestamp)
+				.append(", requests=").append(requestCount);
+		for (Stage stage : STAGES) {
+			builder.append(", ").append(stage).append('=').append(durations[stage.ordinal()]).append("ns");
+		}
+		return builder.append('}').toString();
+	}
+}
@@ -0,0 +1,191 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+package com.pokegoapi.util.hash;
+
+import com.pokegoapi.exceptions.request.HashException;
+import com.pokegoapi.util.NiaHash;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded LRU cache in front of another hash provider. A cached hash is only returned when every input
+ * (timestamp, location, auth ticket, session and request data) is identical, such as when an envelope is
+ * re-signed after a redirect.
+ */
+public class CachingHashProvider implements HashProvider {
+	private final HashProvider provider;
+	private final Map<Key, Hash> cache;
+
+	private final AtomicLong hits = new AtomicLong();
+	private final AtomicLong misses = new AtomicLong();
+
+	/**
+	 * Creates a caching hash provider
+	 *
+	 * @param provider the provider to request hashes from on a cache miss
+	 * @param capacity the maximum amount of hashes to cache
+	 */
+	public CachingHashProvider(HashProvider provider, final int capacity) {
+		if (provider == null) {
+			throw new IllegalArgumentException("Provider cannot be null!");
+		}
+		if (capacity < 1) {
+			throw new IllegalArgumentException("Capacity must be positive!");
+		}
+		this.provider = provider;
+		this.cache = new LinkedHashMap<Key, Hash>(16, 0.75F, true) {
+			@Override
+			protected boolean removeEldestEntry(Map.Entry<Key, Hash> eldest) {
+				return size() > capacity;
+			}
+		};
+	}
+
+	@Override
+	public Hash provide(long timestamp, double latitude, double longitude, double altitude, byte[] authTicket,
+			byte[] sessionData, byte[][] requests) throws HashException {
+		Key key = new Key(timestamp, latitude, longitude, altitude, authTicket, sessionData, requests);
+		Hash hash;
+		synchronized (cache) {
+			hash = cache.get(key);
+		}
+		if (hash != null) {
+			hits.incrementAndGet();
+			return hash;
+		}
+		misses.incrementAndGet();
+		hash = provider.provide(timestamp, latitude, longitude, altitude, authTicket, sessionData, requests);
+		synchronized (cache) {
+			cache.put(key, hash);
+		}
+		return hash;
+	}
+
+	@Override
+	public int getHashVersion() {
+		return provider.getHashVersion();
+	}
+
+	@Override
+	public long getUNK25() {
+		return provider.getUNK25();
+	}
+
+	/**
+	 * @return the provider hashes are requested from on a cache miss
+	 */
+	public HashProvider getProvider() {
+		return provider;
+	}
+
+	/**
+	 * @return the amount of hashes returned from the cache
+	 */
+	public long getHits() {
+		return hits.get();
+	}
+
+	/**
+	 * @return the amount of hashes requested from the underlying provider
+	 */
+	public long getMisses() {
+		return misses.get();
+	}
+
+	/**
+	 * @return the fraction of hashes returned from the cache, 0 if no hashes were provided yet
+	 */
+	public double getHitRate() {
+		long hits = this.hits.get();
+		long total = hits + misses.get();
+		return total == 0 ? 0.0 : (double) hits / total;
+	}
+
+	/**
+	 * Removes all cached hashes
+	 */
+	public void clear() {
+		synchronized (cache) {
+			cache.clear();
+		}
+	}
+
+	private static final class Key {
+		private final long timestamp;
+		private final long latitude;
+		private final long longitude;
+		private final long altitude;
+		private final byte[] authTicket;
+		private final byte[] sessionData;
+		private final byte[][] requests;
+		private final long requestsDigest;
+		private final int hashCode;
+
+		private Key(long timestamp, double latitude, double longitude, double altitude, byte[] authTicket,
+				byte[] sessionData, byte[][] requests) {
+			this.timestamp = timestamp;
+			this.latitude = Double.doubleToLongBits(latitude);
+			this.longitude = Double.doubleToLongBits(longitude);
+			this.altitude = Double.doubleToLongBits(altitude);
+			this.authTicket = authTicket;
+			this.sessionData = sessionData;
+			this.requests = requests;
+
+			long digest = requests.length;
+			for (byte[] request : requests) {
+				digest = digest * 31 + NiaHash.hash64(request);
+			}
+			this.requestsDigest = digest;
+
+			int hash = (int) (timestamp ^ (timestamp >>> 32));
+			hash = 31 * hash + (int) (this.latitude ^ (this.latitude >>> 32));
+			hash = 31 * hash + (int) (this.longitude ^ (this.longitude >>> 32));
+			hash = 31 * hash + (int) (this.altitude ^ (this.altitude >>> 32));
+			hash = 31 * hash + Arrays.hashCode(authTicket);
+			hash = 31 * hash + Arrays.hashCode(sessionData);
+			hash = 31 * hash + (int) (digest ^ (digest >>> 32));
+			this.hashCode = hash;
+		}
+
+		@Override
+		public int hashCode() {
+			return hashCode;
+		}
+
+		@Override
+		public boolean equals(Object object) {
+			if (this == object) {
+				return true;
+			}
+			if (!(object instanceof Key)) {
+				return false;
+			}
+			Key key = (Key) object;
+			return hashCode == key.hashCode
+					&& timestamp == key.timestamp
+					&& latitude == key.latitude
+					&& longitude == key.longitude
+					&& altitude == key.altitude
+					&& requestsDigest == key.requestsDigest
+					&& Arrays.equals(authTicket, key.authTicket)
+					&& Arrays.equals(sessionData, key.sessionData)
+					&& Arrays.deepEquals(requests, key.requests);
+		}
+	}
+}
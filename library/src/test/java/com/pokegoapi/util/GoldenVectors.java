@@ -0,0 +1,105 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.pokegoapi.util;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigInteger;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Loads the golden vectors in src/test/resources/golden. Every line holds the space separated arguments and expected
+ * result of one call, byte arrays are written in hex, "-" stands for an empty value and lines starting with # are
+ * comments.
+ */
+public final class GoldenVectors {
+	private GoldenVectors() {
+	}
+
+	/**
+	 * Reads the vectors of the given file
+	 *
+	 * @param name the name of the file in the golden resource directory
+	 * @return the columns of every vector in the file
+	 * @throws IOException if the file is missing or could not be read
+	 */
+	public static List<String[]> load(String name) throws IOException {
+		InputStream stream = GoldenVectors.class.getResourceAsStream("/golden/" + name);
+		if (stream == null) {
+			throw new IOException("Missing golden vectors: " + name);
+		}
+		List<String[]> vectors = new ArrayList<>();
+		try (BufferedReader reader = new BufferedReader(new InputStreamReader(stream, StandardCharsets.UTF_8))) {
+			String line;
+			while ((line = reader.readLine()) != null) {
+				line = line.trim();
+				if (line.length() > 0 && !line.startsWith("#")) {
+					vectors.add(line.split(" "));
+				}
+			}
+		}
+		if (vectors.isEmpty()) {
+			throw new IOException("No golden vectors in " + name);
+		}
+		return vectors;
+	}
+
+	/**
+	 * Decodes a hex column
+	 *
+	 * @param hex the hex string, or "-" for an empty array
+	 * @return the decoded bytes
+	 */
+	public static byte[] bytes(String hex) {
+		if (hex.equals("-")) {
+			return new byte[0];
+		}
+		byte[] bytes = new byte[hex.length() / 2];
+		for (int i = 0; i < bytes.length; i++) {
+			bytes[i] = (byte) Integer.parseInt(hex.substring(i * 2, i * 2 + 2), 16);
+		}
+		return bytes;
+	}
+
+	/**
+	 * Decodes a hex column into big endian ints
+	 *
+	 * @param hex the hex string
+	 * @return the decoded ints
+	 */
+	public static int[] ints(String hex) {
+		int[] ints = new int[hex.length() / 8];
+		for (int i = 0; i < ints.length; i++) {
+			ints[i] = (int) Long.parseLong(hex.substring(i * 8, i * 8 + 8), 16);
+		}
+		return ints;
+	}
+
+	/**
+	 * Decodes an unsigned hex column
+	 *
+	 * @param hex the hex string
+	 * @return the decoded value
+	 */
+	public static long unsigned(String hex) {
+		return new BigInteger(hex, 16).longValue();
+	}
+}
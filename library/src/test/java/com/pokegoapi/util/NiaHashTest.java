@@ -0,0 +1,96 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.pokegoapi.util;
+
+import org.junit.Test;
+
+import java.nio.ByteBuffer;
+
+import static com.pokegoapi.util.GoldenVectors.bytes;
+import static com.pokegoapi.util.GoldenVectors.load;
+import static com.pokegoapi.util.GoldenVectors.unsigned;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.fail;
+
+public class NiaHashTest {
+	@Test
+	public void matchesGoldenVectors() throws Exception {
+		for (String[] vector : load("nia-hash.txt")) {
+			byte[] input = bytes(vector[2]);
+			long expected = unsigned(vector[3]);
+			String message = vector[0] + " of " + input.length + " bytes";
+			switch (vector[0]) {
+				case "hash32":
+					assertEquals(message, (int) expected, NiaHash.hash32(input));
+					break;
+				case "hash32Salt":
+					assertEquals(message, (int) expected, NiaHash.hash32Salt(input, bytes(vector[1])));
+					break;
+				case "hash64":
+					assertEquals(message, expected, NiaHash.hash64(input));
+					break;
+				case "hash64Salt":
+					assertEquals(message, expected, NiaHash.hash64Salt(input, bytes(vector[1])));
+					break;
+				case "hash64Salt64":
+					assertEquals(message, expected, NiaHash.hash64Salt64(input, unsigned(vector[1])));
+					break;
+				case "computeHash":
+					assertEquals(message, expected, NiaHash.computeHash(input, input.length));
+					break;
+				default:
+					fail("Unknown function " + vector[0]);
+			}
+		}
+	}
+
+	@Test
+	public void overloadsMatchArrayHash() throws Exception {
+		for (String[] vector : load("nia-hash.txt")) {
+			byte[] input = bytes(vector[2]);
+			byte[] padded = new byte[input.length + 5];
+			System.arraycopy(input, 0, padded, 3, input.length);
+			String message = vector[0] + " of " + input.length + " bytes";
+			switch (vector[0]) {
+				case "hash32":
+					int hash32 = NiaHash.hash32(input);
+					assertEquals(message, hash32, NiaHash.hash32(padded, 3, input.length));
+					assertEquals(message, hash32, NiaHash.hash32(ByteBuffer.wrap(input)));
+					break;
+				case "hash32Salt":
+					byte[] salt = bytes(vector[1]);
+					int hash32Salt = NiaHash.hash32Salt(input, salt);
+					assertEquals(message, hash32Salt, NiaHash.hash32Salt(padded, 3, input.length, salt));
+					assertEquals(message, hash32Salt, NiaHash.hash32Salt(ByteBuffer.wrap(input), salt));
+					break;
+				case "hash64":
+					long hash64 = NiaHash.hash64(input);
+					assertEquals(message, hash64, NiaHash.hash64(padded, 3, input.length));
+					assertEquals(message, hash64, NiaHash.hash64(ByteBuffer.wrap(input)));
+					break;
+				case "hash64Salt":
+					byte[] salt64 = bytes(vector[1]);
+					long hash64Salt = NiaHash.hash64Salt(input, salt64);
+					assertEquals(message, hash64Salt, NiaHash.hash64Salt(padded, 3, input.length, salt64));
+					assertEquals(message, hash64Salt, NiaHash.hash64Salt(ByteBuffer.wrap(input), salt64));
+					break;
+				default:
+					break;
+			}
+		}
+	}
+}
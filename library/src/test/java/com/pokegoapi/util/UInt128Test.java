@@ -0,0 +1,61 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.pokegoapi.util;
+
+import org.junit.Test;
+
+import java.math.BigInteger;
+
+import static com.pokegoapi.util.GoldenVectors.load;
+import static com.pokegoapi.util.GoldenVectors.unsigned;
+import static org.junit.Assert.assertEquals;
+
+public class UInt128Test {
+	private static final BigInteger MASK = BigInteger.ONE.shiftLeft(128).subtract(BigInteger.ONE);
+
+	@Test
+	public void matchesGoldenVectors() throws Exception {
+		for (String[] vector : load("uint128.txt")) {
+			UInt128 result;
+			if (vector[0].equals("multiply")) {
+				result = UInt128.multiply(unsigned(vector[1]), unsigned(vector[2]));
+			} else {
+				result = new UInt128(unsigned(vector[1]), unsigned(vector[2]))
+						.add(new UInt128(unsigned(vector[3]), unsigned(vector[4])));
+			}
+			assertEquals(vector[0], unsigned(vector[vector.length - 2]), result.low);
+			assertEquals(vector[0], unsigned(vector[vector.length - 1]), result.high);
+		}
+	}
+
+	@Test
+	public void multiplyMatchesBigInteger() throws Exception {
+		for (String[] vector : load("uint128.txt")) {
+			if (vector[0].equals("multiply")) {
+				long first = unsigned(vector[1]);
+				long second = unsigned(vector[2]);
+				BigInteger expected = toBig(first).multiply(toBig(second)).and(MASK);
+				UInt128 result = UInt128.multiply(first, second);
+				assertEquals(expected, toBig(result.high).shiftLeft(64).or(toBig(result.low)));
+			}
+		}
+	}
+
+	private static BigInteger toBig(long value) {
+		return BigInteger.valueOf(value >>> 1).shiftLeft(1).or(BigInteger.valueOf(value & 1));
+	}
+}
@@ -0,0 +1,60 @@
+/*
+ *     This program is free software: you can redistribute it and/or modify
+ *     it under the terms of the GNU General Public License as published by
+ *     the Free Software Foundation, either version 3 of the License, or
+ *     (at your option) any later version.
+ *
+ *     This program is distributed in the hope that it will be useful,
+ *     but WITHOUT ANY WARRANTY; without even the implied warranty of
+ *     MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ *     GNU General Public License for more details.
+ *
+ *     You should have received a copy of the GNU General Public License
+ *     along with this program.  If not, see <http://www.gnu.org/licenses/>.
+ */
+
+
+package com.pokegoapi.util.hash.crypto;
+
+import org.junit.Test;
+
+import java.util.Arrays;
+
+import static com.pokegoapi.util.GoldenVectors.bytes;
+import static com.pokegoapi.util.GoldenVectors.ints;
+import static com.pokegoapi.util.GoldenVectors.load;
+import static com.pokegoapi.util.GoldenVectors.unsigned;
+import static org.junit.Assert.assertArrayEquals;
+
+public class CryptoTest {
+	@Test
+	public void encryptMatchesGoldenVectors() throws Exception {
+		Crypto crypto = new Crypto();
+		for (String[] vector : load("crypto.txt")) {
+			byte[] input = bytes(vector[1]);
+			byte[] copy = Arrays.copyOf(input, input.length);
+			assertArrayEquals(input.length + " bytes", bytes(vector[2]), crypto.encrypt(input, unsigned(vector[0])));
+			assertArrayEquals("input must not be modified", copy, input);
+		}
+	}
+
+	@Test
+	public void twoFishMatchesGoldenVectors() throws Exception {
+		for (String[] vector : load("twofish.txt")) {
+			byte[] key = bytes(vector[0]);
+			byte[] block = bytes(vector[1]);
+			byte[] padded = new byte[block.length + 7];
+			System.arraycopy(block, 0, padded, 7, block.length);
+			Object sessionKey = TwoFish.makeKey(key);
+			assertArrayEquals(key.length + " byte key", bytes(vector[2]), TwoFish.blockEncrypt(block, 0, sessionKey));
+			assertArrayEquals(key.length + " byte key", bytes(vector[2]), TwoFish.blockEncrypt(padded, 7, sessionKey));
+		}
+	}
+
+	@Test
+	public void shuffleMatchesGoldenVectors() throws Exception {
+		for (String[] vector : load("shuffle.txt")) {
+			assertArrayEquals(bytes(vector[1]), Shuffle.shuffle2(ints(vector[0])));
+		}
+	}
+}